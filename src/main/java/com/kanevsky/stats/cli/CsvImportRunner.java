@@ -0,0 +1,59 @@
+package com.kanevsky.stats.cli;
+
+import com.kanevsky.stats.dto.IngestResultDto;
+import com.kanevsky.stats.service.ICsvImportService;
+import com.kanevsky.stats.service.RecoveryGate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Imports a CSV archive at startup: {@code java -jar app.jar --import-csv=games.csv}. The server keeps
+ * running with the imported stats unless {@code --import-csv.exit=true} is given, in which case the
+ * process exits after printing the report (status 1 if any row failed).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty("import-csv")
+public class CsvImportRunner implements ApplicationRunner {
+
+    @Autowired
+    private ICsvImportService csvImportService;
+
+    @Autowired
+    private RecoveryGate recoveryGate;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${import-csv}")
+    private Path file;
+
+    @Value("${import-csv.exit:false}")
+    private boolean exitAfterImport;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!recoveryGate.awaitReady(Long.MAX_VALUE)) {
+            throw new IllegalStateException("Recovery failed; not importing " + file);
+        }
+        IngestResultDto result = csvImportService.importFile(file);
+        result.getErrors().forEach(error -> log.warn("Row {}: {}", error.getIndex(), error.getMessage()));
+        log.info("Imported {} of {} CSV rows from {} ({} failed) in {} ms: {} rows/sec",
+                result.getSucceeded(), result.getReceived(), file, result.getFailed(),
+                result.getElapsedMillis(), Math.round(result.getEntriesPerSecond()));
+
+        if (exitAfterImport) {
+            int status = SpringApplication.exit(context, () -> result.getFailed() > 0 ? 1 : 0);
+            System.exit(status);
+        }
+    }
+}
@@ -1,24 +1,103 @@
 package com.kanevsky.stats.config;
 
+import com.kanevsky.stats.controller.interceptors.RecoveryHandlerInterceptor;
+import com.kanevsky.stats.model.CalculatorType;
+import com.kanevsky.stats.model.IAverageCalculator;
+import com.kanevsky.stats.model.PartitionedAverageCalculator;
+import com.kanevsky.stats.model.SingleWriterAverageCalculator;
+import com.kanevsky.stats.repos.ColumnarStatsRepo;
+import com.kanevsky.stats.repos.GameDedupIndex;
 import com.kanevsky.stats.repos.IStatsManager;
+import com.kanevsky.stats.repos.IStatsRepo;
+import com.kanevsky.stats.repos.IWriteAheadLog;
+import com.kanevsky.stats.repos.MappedWriteAheadLog;
+import com.kanevsky.stats.repos.OffHeapStatsRepo;
 import com.kanevsky.stats.repos.StatsManager;
 import com.kanevsky.stats.repos.StatsRepo;
+import com.kanevsky.stats.repos.StoreType;
+import com.kanevsky.stats.repos.WalDurability;
+import com.kanevsky.stats.service.IngestEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
 @Configuration
 public class AppConfig implements WebMvcConfigurer {
 
+    @Value("${stats.store:CALCULATOR}")
+    private StoreType storeType;
+
+    @Value("${stats.calculator:LOCKING}")
+    private CalculatorType calculatorType;
+
+    // Every player line also updates its team, so a handful of team keys take all the writes.
+    // Team aggregates are split into this many stripes (0 = one per available processor).
+    // Applies to the CALCULATOR store only, and not to the EXACT calculator.
+    @Value("${stats.team.stripes:0}")
+    private int teamStripes;
+
+    @Value("${stats.ingest.engine:DIRECT}")
+    private IngestEngine ingestEngine;
+
+    @Value("${stats.wal.enabled:false}")
+    private boolean walEnabled;
+
+    @Value("${stats.wal.dir:data/wal}")
+    private Path walDirectory;
+
+    @Value("${stats.wal.durability:ASYNC}")
+    private WalDurability walDurability;
+
+    @Value("${stats.wal.segment-bytes:67108864}")
+    private int walSegmentBytes;
+
+    // Flush interval of ASYNC durability.
+    @Value("${stats.wal.flush-interval-ms:50}")
+    private long walFlushIntervalMillis;
+
+    // Games whose lines are deduplicated exactly; older games are remembered in a Bloom filter.
+    @Value("${stats.dedup.active-games:10000}")
+    private int dedupActiveGames;
+
+    @Value("${stats.dedup.retired-lines:1000000}")
+    private long dedupRetiredLines;
+
+    @Value("${stats.dedup.false-positive-rate:0.000001}")
+    private double dedupFalsePositiveRate;
+
+    @Autowired
+    private RecoveryHandlerInterceptor recoveryHandlerInterceptor;
+
     @Bean
-    public StatsRepo playerStatsRepo() {
-        return new StatsRepo();
+    public IStatsRepo playerStatsRepo() {
+        if (ingestEngine == IngestEngine.SHARDED) {
+            return statsRepo(SingleWriterAverageCalculator::new);
+        }
+        return statsRepo(calculatorType.factory());
     }
 
     @Bean
-    public StatsRepo teamStatsRepo() {
-        return new StatsRepo();
+    public IStatsRepo teamStatsRepo() {
+        // Sharded ingest already gives each team key a single writer, so neither striping nor a
+        // thread-safe calculator is needed.
+        if (ingestEngine == IngestEngine.SHARDED) {
+            return statsRepo(SingleWriterAverageCalculator::new);
+        }
+        // Stripe totals are merged as doubles, which would make exact averages depend on how the
+        // lines fell across stripes. The fixed-point adders are contention-free on their own.
+        if (calculatorType == CalculatorType.EXACT) {
+            return statsRepo(calculatorType.factory());
+        }
+        int stripes = teamStripes > 0 ? teamStripes : Runtime.getRuntime().availableProcessors();
+        return statsRepo(() -> new PartitionedAverageCalculator(stripes, calculatorType.factory()));
     }
 
     @Bean(name = "playerStatsManager")
@@ -31,6 +110,34 @@ public class AppConfig implements WebMvcConfigurer {
         return new StatsManager(teamStatsRepo());
     }
 
+    @Bean
+    public IWriteAheadLog writeAheadLog() throws IOException {
+        if (!walEnabled) {
+            return IWriteAheadLog.DISABLED;
+        }
+        return new MappedWriteAheadLog(walDirectory, walSegmentBytes, walDurability, walFlushIntervalMillis);
+    }
+
+    @Bean
+    public GameDedupIndex gameDedupIndex() {
+        return new GameDedupIndex(dedupActiveGames, dedupRetiredLines, dedupFalsePositiveRate);
+    }
+
+    private IStatsRepo statsRepo(Supplier<IAverageCalculator> calculatorFactory) {
+        return switch (storeType) {
+            case CALCULATOR -> new StatsRepo(calculatorFactory);
+            case COLUMNAR -> new ColumnarStatsRepo();
+            case OFF_HEAP -> new OffHeapStatsRepo();
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(recoveryHandlerInterceptor)
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/recovery");
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
@@ -1,6 +1,8 @@
 package com.kanevsky.stats.config;
 
 import com.kanevsky.stats.grpc.StatsGrpcService;
+import com.kanevsky.stats.grpc.StatsQueryGrpcService;
+import com.kanevsky.stats.grpc.interceptors.RecoveryInterceptor;
 import com.kanevsky.stats.grpc.interceptors.ValidationInterceptor;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
@@ -24,16 +26,25 @@ public class GrpcServerConfig {
     @Autowired
     private StatsGrpcService statsGrpcService;
 
+    @Autowired
+    private StatsQueryGrpcService statsQueryGrpcService;
+
     @Autowired
     private ValidationInterceptor validationInterceptor;
 
+    @Autowired
+    private RecoveryInterceptor recoveryInterceptor;
+
     private Server server;
 
     @Bean
     public Server grpcServer() throws IOException {
         server = ServerBuilder.forPort(grpcPort)
                 .intercept(validationInterceptor)
+                // Added last, so it runs first.
+                .intercept(recoveryInterceptor)
                 .addService(statsGrpcService)
+                .addService(statsQueryGrpcService)
                 .build();
 
         try {
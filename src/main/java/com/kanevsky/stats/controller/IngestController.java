@@ -1,15 +1,28 @@
 package com.kanevsky.stats.controller;
 
+import com.kanevsky.stats.dto.IngestResultDto;
 import com.kanevsky.stats.dto.StatsBatchRequestDto;
+import com.kanevsky.stats.dto.StatsCorrectionDto;
+import com.kanevsky.stats.dto.StatsEntryDto;
+import com.kanevsky.stats.dto.StatsRetractionDto;
 import com.kanevsky.stats.exceptions.IngestException;
+import com.kanevsky.stats.exceptions.ResourceNotFoundException;
+import com.kanevsky.stats.exceptions.ServiceUnavailableException;
+import com.kanevsky.stats.service.CorrectionResult;
+import com.kanevsky.stats.service.ICsvImportService;
 import com.kanevsky.stats.service.IIngestService;
+import com.kanevsky.stats.service.IStreamingIngestService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/api/ingest")
 public class IngestController implements IIngestController {
@@ -17,6 +30,12 @@ public class IngestController implements IIngestController {
     @Autowired
     private IIngestService ingestService;
 
+    @Autowired
+    private IStreamingIngestService streamingIngestService;
+
+    @Autowired
+    private ICsvImportService csvImportService;
+
     @PostMapping("/")
     @Override
     public void ingest(@Valid @RequestBody StatsBatchRequestDto request) {
@@ -26,4 +45,68 @@ public class IngestController implements IIngestController {
             throw new IngestException("Failed to ingest stats: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Subtracts an entry ingested before from its player and team. Entries are not remembered, so
+     * the caller must send the entry exactly as ingested, or the averages are skewed. 404 if either
+     * has no games to subtract from, or the entry would leave a negative total, 400 if the entry is
+     * incomplete and 503 if the check timed out. A retry with the same correction id is a no-op that
+     * succeeds.
+     */
+    @PostMapping("/retractions")
+    public void retract(@Valid @RequestBody StatsRetractionDto retraction) {
+        CorrectionResult result = ingestService.retract(retraction.getCorrectionId(), retraction.getOriginal());
+        throwIfFailed(result, "retract", retraction.getOriginal(), null);
+    }
+
+    /**
+     * Retracts the original entry, with the same precondition as {@link #retract}, and ingests the
+     * corrected one in its place. 400 if the corrected entry is incomplete.
+     */
+    @PostMapping("/corrections")
+    public void correct(@Valid @RequestBody StatsCorrectionDto correction) {
+        CorrectionResult result = ingestService.correct(correction.getCorrectionId(), correction.getOriginal(),
+                correction.getCorrected());
+        throwIfFailed(result, "correct", correction.getOriginal(), correction.getCorrected());
+    }
+
+    private static void throwIfFailed(CorrectionResult result, String operation, StatsEntryDto original,
+                                      StatsEntryDto corrected) {
+        String message = result.describe(operation, original, corrected);
+        switch (result) {
+            case APPLIED -> {
+            }
+            case ORIGINAL_NOT_FOUND -> throw new ResourceNotFoundException(message);
+            case ORIGINAL_REJECTED, CORRECTED_REJECTED -> throw new IngestException(message);
+            case BUSY -> throw new ServiceUnavailableException(message);
+            case NOT_APPLIED -> throw new IllegalStateException(message);
+        }
+    }
+
+    /**
+     * Same body as {@link #ingest}, but entries are parsed, validated and applied while the body is
+     * read, so memory use does not grow with the batch. Invalid entries are skipped and reported.
+     */
+    @PostMapping(path = "/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public IngestResultDto ingestStream(HttpServletRequest request) throws IOException {
+        return streamingIngestService.ingestJson(request.getInputStream());
+    }
+
+    /**
+     * Newline-delimited entries, one JSON object per line, applied in micro-batches as the body
+     * arrives. Errors are reported by zero-based line offset.
+     */
+    @PostMapping(path = "/ndjson", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public IngestResultDto ingestNdjson(HttpServletRequest request) throws IOException {
+        return streamingIngestService.ingestNdjson(request.getInputStream());
+    }
+
+    /**
+     * CSV with a header row naming the columns (common box-score abbreviations such as PTS, TRB and
+     * MP are recognized). Errors are reported by zero-based data row.
+     */
+    @PostMapping(path = "/csv", consumes = "text/csv")
+    public IngestResultDto ingestCsv(HttpServletRequest request) throws IOException {
+        return csvImportService.importStream(request.getInputStream());
+    }
+}
@@ -0,0 +1,23 @@
+package com.kanevsky.stats.controller;
+
+import com.kanevsky.stats.dto.PipelineMetricsDto;
+import com.kanevsky.stats.service.ShardedIngestService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/ingest")
+@ConditionalOnProperty(name = "stats.ingest.engine", havingValue = "SHARDED")
+public class PipelineController {
+
+    @Autowired
+    private ShardedIngestService ingestService;
+
+    @GetMapping("/pipeline")
+    public PipelineMetricsDto getPipelineMetrics() {
+        return ingestService.getMetrics();
+    }
+}
@@ -0,0 +1,22 @@
+package com.kanevsky.stats.controller;
+
+import com.kanevsky.stats.dto.RecoveryDto;
+import com.kanevsky.stats.service.RecoveryGate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Not held by the recovery gate, so progress and failures can be seen while it is closed.
+@RestController
+@RequestMapping("/api/recovery")
+public class RecoveryController {
+
+    @Autowired
+    private RecoveryGate recoveryGate;
+
+    @GetMapping
+    public RecoveryDto getRecovery() {
+        return recoveryGate.getStatus();
+    }
+}
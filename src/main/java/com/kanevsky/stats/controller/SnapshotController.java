@@ -0,0 +1,23 @@
+package com.kanevsky.stats.controller;
+
+import com.kanevsky.stats.dto.SnapshotDto;
+import com.kanevsky.stats.service.ISnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/snapshots")
+@ConditionalOnProperty(name = "stats.snapshot.enabled", havingValue = "true")
+public class SnapshotController {
+
+    @Autowired
+    private ISnapshotService snapshotService;
+
+    @PostMapping
+    public SnapshotDto takeSnapshot() {
+        return snapshotService.takeSnapshot();
+    }
+}
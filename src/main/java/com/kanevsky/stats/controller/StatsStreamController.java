@@ -0,0 +1,192 @@
+package com.kanevsky.stats.controller;
+
+import com.kanevsky.stats.mappers.IPlayerMapper;
+import com.kanevsky.stats.mappers.ITeamMapper;
+import com.kanevsky.stats.model.Stats;
+import com.kanevsky.stats.service.live.EntityKind;
+import com.kanevsky.stats.service.live.IStatsUpdateSink;
+import com.kanevsky.stats.service.live.StatsSubscription;
+import com.kanevsky.stats.service.live.StatsSubscriptionHub;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events feed of average changes for browser clients. Each connection is a
+ * subscription on {@link StatsSubscriptionHub}, so updates are conflated per key and a slow client
+ * only ever has its watched keys pending.
+ */
+@RestController
+@RequestMapping("/api/stats")
+public class StatsStreamController {
+
+    @Autowired
+    private StatsSubscriptionHub subscriptionHub;
+
+    @Autowired
+    private IPlayerMapper playerMapper;
+
+    @Autowired
+    private ITeamMapper teamMapper;
+
+    @Value("${stats.sse.max-keys:100}")
+    private int maxKeysPerConnection;
+
+    @Value("${stats.sse.max-connections:10000}")
+    private int maxConnections;
+
+    // 0 keeps the stream open until the client disconnects.
+    @Value("${stats.sse.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    // Threads writing events to the emitters, however many streams are open.
+    @Value("${stats.sse.writer-threads:16}")
+    private int writerThreads;
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    // Blocking emitter writes run here rather than on the shared delivery threads. Each connection
+    // queues at most one write, so the queue is bounded by the open connections. Once every thread
+    // is stuck on a stalled browser, the other connections just stay not ready, their keys conflated.
+    private ExecutorService writers;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "stats-sse-writer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        writers.shutdown();
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestParam(defaultValue = "") List<String> players,
+                                             @RequestParam(defaultValue = "") List<String> teams) {
+        Set<String> playerNames = names(players);
+        Set<String> teamNames = names(teams);
+        int keys = playerNames.size() + teamNames.size();
+        if (keys == 0 || keys > maxKeysPerConnection) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        SseSink sink = new SseSink(emitter);
+        StatsSubscription subscription = subscriptionHub.subscribe(playerNames, teamNames, sink);
+        sink.subscription = subscription;
+        // In case the first write finished before the sink could signal the subscription.
+        subscription.signal();
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                subscription.close();
+                connections.decrementAndGet();
+            }
+        };
+        emitter.onCompletion(release);
+        emitter.onTimeout(release);
+        emitter.onError(error -> release.run());
+
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Holds at most one event per connection: {@link #send} hands it to the writer pool, and the sink
+     * reports not ready until that write has finished, which then signals the subscription to carry
+     * on. A slow browser, or a saturated pool, thus only delays keys, which stay dirty and conflated
+     * meanwhile.
+     */
+    private final class SseSink implements IStatsUpdateSink {
+        private final SseEmitter emitter;
+        private volatile boolean writing;
+        private volatile StatsSubscription subscription;
+
+        SseSink(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public boolean isReady() {
+            return !writing;
+        }
+
+        @Override
+        public void send(EntityKind kind, String name, Stats average) {
+            Object data = kind == EntityKind.TEAM
+                    ? teamMapper.toTeamDto(name, average)
+                    : playerMapper.toPlayerDto(name, average);
+            SseEmitter.SseEventBuilder event = SseEmitter.event()
+                    .name(kind.name().toLowerCase())
+                    .data(data, MediaType.APPLICATION_JSON);
+            writing = true;
+            try {
+                writers.execute(() -> write(event));
+            } catch (RejectedExecutionException e) {
+                // Shutting down.
+                writing = false;
+                emitter.complete();
+            }
+        }
+
+        @Override
+        public void complete() {
+            emitter.complete();
+        }
+
+        private void write(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                // The completion callback closes the subscription.
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                writing = false;
+            }
+            StatsSubscription current = subscription;
+            if (current != null) {
+                current.signal();
+            }
+        }
+    }
+
+    private static Set<String> names(List<String> values) {
+        Set<String> names = new HashSet<>();
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                names.add(value.trim());
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,27 @@
+package com.kanevsky.stats.controller.interceptors;
+
+import com.kanevsky.stats.exceptions.ServiceUnavailableException;
+import com.kanevsky.stats.service.RecoveryGate;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Holds REST requests until startup recovery has finished, and answers 503 if it does not finish in time.
+ */
+@Component
+public class RecoveryHandlerInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private RecoveryGate recoveryGate;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!recoveryGate.awaitReady()) {
+            throw new ServiceUnavailableException("Recovery is " + recoveryGate.getStatus().getState());
+        }
+        return true;
+    }
+}
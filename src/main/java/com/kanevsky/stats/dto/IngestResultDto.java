@@ -0,0 +1,38 @@
+package com.kanevsky.stats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class IngestResultDto {
+    private int received;
+    private int succeeded;
+    private int failed;
+    private long elapsedMillis;
+    private double entriesPerSecond;
+    // The first failures only; failed holds the full count.
+    private List<EntryError> errors = new ArrayList<>();
+
+    /**
+     * Sets the elapsed time and throughput of an ingest that started at {@code startNanos}.
+     */
+    public void recordElapsed(long startNanos) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+        elapsedMillis = elapsedNanos / 1_000_000;
+        entriesPerSecond = received * 1e9 / elapsedNanos;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EntryError {
+        // Position of the entry in the request, starting at 0.
+        private long index;
+        private String message;
+    }
+}
@@ -0,0 +1,29 @@
+package com.kanevsky.stats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PipelineMetricsDto {
+    private int queueDepth;
+    private long applied;
+    private long failed;
+    private long rejected;
+    private List<Shard> shards;
+
+    @Data
+    @AllArgsConstructor
+    public static class Shard {
+        private int index;
+        private int queueDepth;
+        private int capacity;
+        private int highWaterMark;
+        private long applied;
+        private long failed;
+        private long rejected;
+        private long backpressureWaits;
+    }
+}
@@ -0,0 +1,24 @@
+package com.kanevsky.stats.dto;
+
+import com.kanevsky.stats.service.RecoveryState;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class RecoveryDto {
+    private RecoveryState state = RecoveryState.RECOVERING;
+    // Write-ahead log position of the restored snapshot (0 without one); replay starts there.
+    private long snapshotPosition;
+    private long snapshotMillis;
+    // Position this process started logging at; replay ends there.
+    private long walPosition;
+    private int segments;
+    private long bytes;
+    private long lines;
+    private int threads;
+    private long replayMillis;
+    private double linesPerSecond;
+    private long elapsedMillis;
+    private String error;
+}
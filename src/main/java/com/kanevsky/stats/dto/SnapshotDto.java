@@ -0,0 +1,18 @@
+package com.kanevsky.stats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SnapshotDto {
+    private String file;
+    // Write-ahead log position the snapshot is exact at.
+    private long walPosition;
+    private int players;
+    private int teams;
+    private long bytes;
+    // How long newly ingested batches were held back from the aggregates.
+    private long captureMillis;
+    private long elapsedMillis;
+}
@@ -6,10 +6,15 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 @Data
 public class StatsEntryDto {
+    // Optional. A line whose game and player were already ingested is skipped, so retries are safe.
+    @Size(max = 128, message = "Game id cannot exceed 128 characters")
+    private String gameId;
+
     @NotBlank(message = "Player name cannot be empty")
     private String playerName;
     
@@ -0,0 +1,20 @@
+package com.kanevsky.stats.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class StatsRetractionDto {
+    // Chosen by the client; a retraction with an id seen before is not applied again.
+    @NotBlank(message = "Correction id cannot be blank")
+    @Size(max = 128, message = "Correction id cannot exceed 128 characters")
+    private String correctionId;
+
+    // The entry as it was ingested; it is subtracted.
+    @Valid
+    @NotNull(message = "Original entry cannot be null")
+    private StatsEntryDto original;
+}
@@ -2,26 +2,39 @@ package com.kanevsky.stats.grpc;
 
 import com.kanevsky.stats.dto.StatsEntryDto;
 import com.kanevsky.stats.mappers.IGrpcMapper;
-import com.kanevsky.stats.service.IngestService;
+import com.kanevsky.stats.model.Stats;
+import com.kanevsky.stats.service.CorrectionResult;
+import com.kanevsky.stats.service.IIngestService;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 
+@Slf4j
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class StatsGrpcService extends StatsServiceGrpc.StatsServiceImplBase {
 
-    private IngestService ingestService;
+    // Caps the errors carried by a streaming response, so its size does not grow with the stream.
+    static final int MAX_STREAM_ERRORS = 100;
 
-    private IGrpcMapper grpcMapper;
+    private final IIngestService ingestService;
+
+    private final IGrpcMapper grpcMapper;
+
+    // An IngestSession acknowledges after this many chunks, and once more when the client completes.
+    @Value("${grpc.ingest.ack-every:16}")
+    private int ackEvery = 16;
 
     @Override
     public void ingestStats(StatsBatchRequest request, StreamObserver<IngestResponse> responseObserver) {
         try {
-            List<StatsEntryDto> entries = grpcMapper.toStatsEntryDtoList(request.getEntriesList());
-            int successCount = ingestService.processBatchEntries(entries);
+            int successCount = processEntries(request.getEntriesList());
 
             IngestResponse response = IngestResponse.newBuilder()
                     .setSuccessCount(successCount)
@@ -44,4 +57,197 @@ public class StatsGrpcService extends StatsServiceGrpc.StatsServiceImplBase {
             responseObserver.onCompleted();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Each entry is applied as soon as it is received and then dropped. gRPC requests the next
+     * message only after {@code onNext} returns, so a feeder faster than ingest is held back by
+     * transport flow control instead of being buffered here.
+     */
+    @Override
+    public StreamObserver<StatsEntry> ingestStream(StreamObserver<IngestResponse> responseObserver) {
+        return new StreamObserver<>() {
+            private int received;
+            private final IngestResponse.Builder response = IngestResponse.newBuilder();
+
+            @Override
+            public void onNext(StatsEntry entry) {
+                int index = received++;
+                boolean success;
+                try {
+                    Stats stats = grpcMapper.toStats(entry.getStats());
+                    success = entry.getGameId().isEmpty()
+                            ? ingestService.processStats(entry.getPlayerName(), entry.getTeamName(), stats)
+                            : ingestService.processStats(entry.getGameId(), entry.getPlayerName(), entry.getTeamName(),
+                            stats);
+                } catch (Exception e) {
+                    log.error("Error processing streamed stats entry {}", index, e);
+                    success = false;
+                }
+
+                if (success) {
+                    response.setSuccessCount(response.getSuccessCount() + 1);
+                } else if (response.getErrorsCount() < MAX_STREAM_ERRORS) {
+                    response.addErrors(ProcessingError.newBuilder()
+                            .setFieldPath("entries[" + index + "]")
+                            .setMessage("Error processing stats for player: " + entry.getPlayerName()
+                                    + ", team: " + entry.getTeamName())
+                            .build());
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.warn("Ingest stream aborted after {} entries: {}", received, t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                responseObserver.onNext(response.build());
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    /**
+     * Chunks are applied in arrival order. Instead of answering every chunk, the session sends a
+     * cumulative {@link IngestAck} every {@code ackEvery} chunks and on completion, so a feeder can
+     * keep sending without waiting on a round trip per batch. A chunk that fails validation still
+     * closes the call in {@code ValidationInterceptor}; the last ack tells the client where to resume.
+     */
+    @Override
+    public StreamObserver<IngestChunk> ingestSession(StreamObserver<IngestAck> responseObserver) {
+        return new StreamObserver<>() {
+            private long lastSequence = -1;
+            private long successCount;
+            private int pendingChunks;
+            private final List<ChunkError> pendingErrors = new ArrayList<>();
+
+            @Override
+            public void onNext(IngestChunk chunk) {
+                long sequence = chunk.getSequence();
+                if (sequence <= lastSequence) {
+                    pendingErrors.add(chunkError(sequence, "Chunk sequence " + sequence
+                            + " is not after " + lastSequence + ", chunk skipped"));
+                } else {
+                    lastSequence = sequence;
+                    applyChunk(chunk);
+                }
+
+                if (++pendingChunks >= ackEvery) {
+                    sendAck();
+                }
+            }
+
+            private void applyChunk(IngestChunk chunk) {
+                int entries = chunk.getEntriesCount();
+                try {
+                    int applied = processEntries(chunk.getEntriesList());
+                    successCount += applied;
+                    if (applied < entries) {
+                        pendingErrors.add(chunkError(chunk.getSequence(),
+                                (entries - applied) + " of " + entries + " entries failed"));
+                    }
+                } catch (Exception e) {
+                    log.error("Error processing ingest chunk {}", chunk.getSequence(), e);
+                    pendingErrors.add(chunkError(chunk.getSequence(), "Error processing stats: " + e.getMessage()));
+                }
+            }
+
+            private void sendAck() {
+                responseObserver.onNext(IngestAck.newBuilder()
+                        .setAckedSequence(lastSequence)
+                        .setSuccessCount(successCount)
+                        .addAllErrors(pendingErrors)
+                        .build());
+                pendingChunks = 0;
+                pendingErrors.clear();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.warn("Ingest session aborted after sequence {}: {}", lastSequence, t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                sendAck();
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    @Override
+    public void retractStats(StatsRetraction request, StreamObserver<IngestResponse> responseObserver) {
+        replyCorrection("retract", request.getCorrectionId(), request.getOriginal(), null, responseObserver);
+    }
+
+    @Override
+    public void correctStats(StatsCorrection request, StreamObserver<IngestResponse> responseObserver) {
+        replyCorrection("correct", request.getCorrectionId(), request.getOriginal(), request.getCorrected(),
+                responseObserver);
+    }
+
+    private void replyCorrection(String operation, String correctionId, StatsEntry original, StatsEntry corrected,
+                                 StreamObserver<IngestResponse> responseObserver) {
+        StatsEntryDto originalDto = grpcMapper.toStatsEntryDto(original);
+        StatsEntryDto correctedDto = corrected == null ? null : grpcMapper.toStatsEntryDto(corrected);
+        CorrectionResult result = ingestService.correct(correctionId, originalDto, correctedDto);
+        if (result != CorrectionResult.APPLIED) {
+            responseObserver.onError(statusOf(result)
+                    .withDescription(result.describe(operation, originalDto, correctedDto))
+                    .asRuntimeException());
+            return;
+        }
+
+        responseObserver.onNext(IngestResponse.newBuilder().setSuccessCount(1).build());
+        responseObserver.onCompleted();
+    }
+
+    private static Status statusOf(CorrectionResult result) {
+        return switch (result) {
+            case APPLIED -> Status.OK;
+            case ORIGINAL_NOT_FOUND -> Status.NOT_FOUND;
+            case ORIGINAL_REJECTED, CORRECTED_REJECTED -> Status.INVALID_ARGUMENT;
+            case BUSY -> Status.UNAVAILABLE;
+            case NOT_APPLIED -> Status.INTERNAL;
+        };
+    }
+
+    /**
+     * Maps entries straight from the proto messages to {@link Stats},
+     * one allocation per line, without the DTO round trip of the REST path.
+     */
+    private int processEntries(List<StatsEntry> entries) {
+        int count = entries.size();
+        String[] gameIds = null;
+        String[] playerNames = new String[count];
+        String[] teamNames = new String[count];
+        Stats[] stats = new Stats[count];
+        for (int i = 0; i < count; i++) {
+            StatsEntry entry = entries.get(i);
+            playerNames[i] = entry.getPlayerName();
+            teamNames[i] = entry.getTeamName();
+            stats[i] = grpcMapper.toStats(entry.getStats());
+            // Only allocated once some entry carries a game id.
+            if (!entry.getGameId().isEmpty()) {
+                if (gameIds == null) {
+                    gameIds = new String[count];
+                }
+                gameIds[i] = entry.getGameId();
+            }
+        }
+        return gameIds == null
+                ? ingestService.processBatch(playerNames, teamNames, stats)
+                : ingestService.processBatch(gameIds, playerNames, teamNames, stats);
+    }
+
+    private static ChunkError chunkError(long sequence, String message) {
+        return ChunkError.newBuilder()
+                .setSequence(sequence)
+                .addErrors(ProcessingError.newBuilder()
+                        .setFieldPath("entries")
+                        .setMessage(message)
+                        .build())
+                .build();
+    }
+}
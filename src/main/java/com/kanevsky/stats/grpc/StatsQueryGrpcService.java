@@ -0,0 +1,137 @@
+package com.kanevsky.stats.grpc;
+
+import com.kanevsky.stats.model.Stats;
+import com.kanevsky.stats.repos.IStatsManager;
+import com.kanevsky.stats.service.live.EntityKind;
+import com.kanevsky.stats.service.live.IStatsUpdateSink;
+import com.kanevsky.stats.service.live.StatsSubscription;
+import com.kanevsky.stats.service.live.StatsSubscriptionHub;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+
+/**
+ * Read side of the gRPC API. Averages go from the stats managers straight into proto messages,
+ * with no DTO or JSON step in between.
+ */
+@Service
+public class StatsQueryGrpcService extends StatsQueryServiceGrpc.StatsQueryServiceImplBase {
+
+    @Autowired
+    @Qualifier("playerStatsManager")
+    private IStatsManager playerStatsManager;
+
+    @Autowired
+    @Qualifier("teamStatsManager")
+    private IStatsManager teamStatsManager;
+
+    @Autowired
+    private StatsSubscriptionHub subscriptionHub;
+
+    @Override
+    public void getPlayerStats(StatsQuery request, StreamObserver<StatsReply> responseObserver) {
+        replySingle(playerStatsManager, "Player", request.getName(), responseObserver);
+    }
+
+    @Override
+    public void getTeamStats(StatsQuery request, StreamObserver<StatsReply> responseObserver) {
+        replySingle(teamStatsManager, "Team", request.getName(), responseObserver);
+    }
+
+    @Override
+    public void getStatsBatch(StatsBatchQuery request, StreamObserver<StatsBatchReply> responseObserver) {
+        IStatsManager statsManager = request.getType() == EntityType.TEAM ? teamStatsManager : playerStatsManager;
+
+        StatsBatchReply.Builder reply = StatsBatchReply.newBuilder();
+        for (String name : request.getNamesList()) {
+            Stats stats = statsManager.getStats(name);
+            reply.addResults(stats == null
+                    ? StatsReply.newBuilder().setName(name).setFound(false).build()
+                    : toReply(name, stats));
+        }
+
+        responseObserver.onNext(reply.build());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Sends only while the call is ready; otherwise changed keys stay marked in the subscription
+     * and the on-ready handler resumes delivery with their latest averages.
+     */
+    @Override
+    public void subscribe(SubscribeRequest request, StreamObserver<StatsUpdate> responseObserver) {
+        if (request.getPlayersCount() == 0 && request.getTeamsCount() == 0) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("At least one player or team is required")
+                    .asRuntimeException());
+            return;
+        }
+
+        ServerCallStreamObserver<StatsUpdate> call = (ServerCallStreamObserver<StatsUpdate>) responseObserver;
+        StatsSubscription subscription = subscriptionHub.subscribe(new HashSet<>(request.getPlayersList()),
+                new HashSet<>(request.getTeamsList()), new IStatsUpdateSink() {
+                    @Override
+                    public boolean isReady() {
+                        return call.isReady() && !call.isCancelled();
+                    }
+
+                    @Override
+                    public void send(EntityKind kind, String name, Stats average) {
+                        call.onNext(StatsUpdate.newBuilder()
+                                .setType(kind == EntityKind.TEAM ? EntityType.TEAM : EntityType.PLAYER)
+                                .setName(name)
+                                .setStats(toAverageStats(average))
+                                .build());
+                    }
+
+                    @Override
+                    public void complete() {
+                        if (!call.isCancelled()) {
+                            call.onCompleted();
+                        }
+                    }
+                });
+        call.setOnReadyHandler(subscription::signal);
+        call.setOnCancelHandler(subscription::close);
+    }
+
+    private static void replySingle(IStatsManager statsManager, String kind, String name,
+                                    StreamObserver<StatsReply> responseObserver) {
+        Stats stats = statsManager.getStats(name);
+        if (stats == null) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription(kind + " not found: " + name)
+                    .asRuntimeException());
+            return;
+        }
+
+        responseObserver.onNext(toReply(name, stats));
+        responseObserver.onCompleted();
+    }
+
+    private static StatsReply toReply(String name, Stats stats) {
+        return StatsReply.newBuilder()
+                .setName(name)
+                .setFound(true)
+                .setStats(toAverageStats(stats))
+                .build();
+    }
+
+    private static AverageStats toAverageStats(Stats stats) {
+        return AverageStats.newBuilder()
+                .setPoints(stats.getPoints())
+                .setRebounds(stats.getRebounds())
+                .setAssists(stats.getAssists())
+                .setSteals(stats.getSteals())
+                .setBlocks(stats.getBlocks())
+                .setFouls(stats.getFouls())
+                .setTurnovers(stats.getTurnovers())
+                .setMinutesPlayed(stats.getMinutesPlayed())
+                .build();
+    }
+}
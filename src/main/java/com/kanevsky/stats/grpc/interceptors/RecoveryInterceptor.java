@@ -0,0 +1,40 @@
+package com.kanevsky.stats.grpc.interceptors;
+
+import com.kanevsky.stats.service.RecoveryGate;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds calls until startup recovery has finished; the gRPC server starts while the context is
+ * still being created. Calls that outwait the timeout fail with UNAVAILABLE.
+ */
+@Component
+public class RecoveryInterceptor implements ServerInterceptor {
+
+    private final RecoveryGate recoveryGate;
+
+    @Autowired
+    public RecoveryInterceptor(RecoveryGate recoveryGate) {
+        this.recoveryGate = recoveryGate;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+            ServerCall<ReqT, RespT> call,
+            Metadata headers,
+            ServerCallHandler<ReqT, RespT> next) {
+
+        if (!recoveryGate.awaitReady()) {
+            call.close(Status.UNAVAILABLE.withDescription("Recovery is " + recoveryGate.getStatus().getState()),
+                    new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+        return next.startCall(call, headers);
+    }
+}
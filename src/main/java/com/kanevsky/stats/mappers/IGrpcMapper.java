@@ -3,6 +3,7 @@ package com.kanevsky.stats.mappers;
 import com.kanevsky.stats.dto.StatsEntryDto;
 import com.kanevsky.stats.grpc.GameStats;
 import com.kanevsky.stats.grpc.StatsEntry;
+import com.kanevsky.stats.model.Stats;
 import org.mapstruct.Mapper;
 import org.mapstruct.ReportingPolicy;
 
@@ -18,4 +19,9 @@ public interface IGrpcMapper {
     StatsEntryDto.GameStatsDto toGameStatsDto(GameStats gameStats);
     
     List<StatsEntryDto> toStatsEntryDtoList(List<StatsEntry> entries);
+
+    /**
+     * Maps proto game stats straight to the model, for ingest paths that skip the DTOs.
+     */
+    Stats toStats(GameStats gameStats);
 }
\ No newline at end of file
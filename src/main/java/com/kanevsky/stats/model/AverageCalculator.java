@@ -4,19 +4,20 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-public class AverageCalculator {
+public class AverageCalculator implements IAverageCalculator {
 
-   private int gamesPlayed = 0;
-   private Stats curAvg = new Stats();
+   private long gamesPlayed = 0;
+   private final Stats totals = new Stats();
 
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
+    @Override
     public void accept(Stats gameStats){
         Lock writeLock = lock.writeLock();
         try {
             writeLock.lock();
-            curAvg = curAvg.multiply(gamesPlayed).add(gameStats).divide(++gamesPlayed);
-
+            totals.accumulate(gameStats);
+            gamesPlayed++;
         }
         finally {
             writeLock.unlock();
@@ -24,11 +25,48 @@ public class AverageCalculator {
 
     }
 
+    @Override
+    public void merge(Stats totals, long games) {
+        Lock writeLock = lock.writeLock();
+        try {
+            writeLock.lock();
+            this.totals.accumulate(totals);
+            gamesPlayed += games;
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
     public Stats getAverage() {
         Lock readLock = lock.readLock();
         try {
             readLock.lock();
-            return curAvg;
+            return totals.averageOver(gamesPlayed);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public long getGamesPlayed() {
+        Lock readLock = lock.readLock();
+        try {
+            readLock.lock();
+            return gamesPlayed;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public long addTotalsTo(Stats target) {
+        Lock readLock = lock.readLock();
+        try {
+            readLock.lock();
+            target.accumulate(totals);
+            return gamesPlayed;
         } finally {
             readLock.unlock();
         }
@@ -0,0 +1,19 @@
+package com.kanevsky.stats.model;
+
+import java.util.function.Supplier;
+
+public enum CalculatorType {
+    LOCKING(AverageCalculator::new),
+    STRIPED(StripedAverageCalculator::new),
+    EXACT(FixedPointAverageCalculator::new);
+
+    private final Supplier<IAverageCalculator> factory;
+
+    CalculatorType(Supplier<IAverageCalculator> factory) {
+        this.factory = factory;
+    }
+
+    public Supplier<IAverageCalculator> factory() {
+        return factory;
+    }
+}
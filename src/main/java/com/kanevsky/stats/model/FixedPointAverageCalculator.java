@@ -0,0 +1,91 @@
+package com.kanevsky.stats.model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps exact integer sums instead of floating-point ones. Counting stats are whole numbers per
+ * game and are summed as-is; minutes played are summed in fixed-point hundredths. Integer addition
+ * is associative, so the same set of game lines yields bit-for-bit identical averages regardless
+ * of arrival order, thread interleaving or node. The only rounding happens in the single division
+ * performed on read.
+ * <p>
+ * Sums live in lock-free {@link LongAdder} cells, with the same read-while-writing caveat as
+ * {@link StripedAverageCalculator}.
+ */
+public class FixedPointAverageCalculator implements IAverageCalculator {
+
+    static final long MINUTES_SCALE = 100;
+
+    private final LongAdder points = new LongAdder();
+    private final LongAdder rebounds = new LongAdder();
+    private final LongAdder assists = new LongAdder();
+    private final LongAdder steals = new LongAdder();
+    private final LongAdder blocks = new LongAdder();
+    private final LongAdder fouls = new LongAdder();
+    private final LongAdder turnovers = new LongAdder();
+    private final LongAdder minutesHundredths = new LongAdder();
+    private final LongAdder gamesPlayed = new LongAdder();
+
+    @Override
+    public void accept(Stats gameStats) {
+        points.add(round(gameStats.points));
+        rebounds.add(round(gameStats.rebounds));
+        assists.add(round(gameStats.assists));
+        steals.add(round(gameStats.steals));
+        blocks.add(round(gameStats.blocks));
+        fouls.add(round(gameStats.fouls));
+        turnovers.add(round(gameStats.turnovers));
+        minutesHundredths.add(round(gameStats.minutesPlayed * MINUTES_SCALE));
+        gamesPlayed.increment();
+    }
+
+    @Override
+    public void merge(Stats totals, long games) {
+        points.add(round(totals.points));
+        rebounds.add(round(totals.rebounds));
+        assists.add(round(totals.assists));
+        steals.add(round(totals.steals));
+        blocks.add(round(totals.blocks));
+        fouls.add(round(totals.fouls));
+        turnovers.add(round(totals.turnovers));
+        minutesHundredths.add(round(totals.minutesPlayed * MINUTES_SCALE));
+        gamesPlayed.add(games);
+    }
+
+    @Override
+    public Stats getAverage() {
+        long games = gamesPlayed.sum();
+        if (games == 0) {
+            return new Stats();
+        }
+
+        double divisor = games;
+        return new Stats(points.sum() / divisor, rebounds.sum() / divisor, assists.sum() / divisor,
+                steals.sum() / divisor, blocks.sum() / divisor, fouls.sum() / divisor, turnovers.sum() / divisor,
+                minutesHundredths.sum() / (divisor * MINUTES_SCALE));
+    }
+
+    @Override
+    public long getGamesPlayed() {
+        return gamesPlayed.sum();
+    }
+
+    @Override
+    public long addTotalsTo(Stats target) {
+        long games = gamesPlayed.sum();
+        target.points += points.sum();
+        target.rebounds += rebounds.sum();
+        target.assists += assists.sum();
+        target.steals += steals.sum();
+        target.blocks += blocks.sum();
+        target.fouls += fouls.sum();
+        target.turnovers += turnovers.sum();
+        target.minutesPlayed += (double) minutesHundredths.sum() / MINUTES_SCALE;
+        return games;
+    }
+
+    // Rounds halves away from zero, so a negated line subtracts exactly what the line added.
+    private static long round(double value) {
+        return value < 0 ? -Math.round(-value) : Math.round(value);
+    }
+}
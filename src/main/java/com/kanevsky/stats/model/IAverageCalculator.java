@@ -0,0 +1,21 @@
+package com.kanevsky.stats.model;
+
+public interface IAverageCalculator {
+
+    void accept(Stats gameStats);
+
+    /**
+     * Adds pre-aggregated per-category {@code totals} covering {@code games} game lines in one step.
+     * Negated totals with a negative {@code games} subtract lines that were added before.
+     */
+    void merge(Stats totals, long games);
+
+    Stats getAverage();
+
+    long getGamesPlayed();
+
+    /**
+     * Adds this aggregate's per-category totals into {@code target} and returns the number of games they cover.
+     */
+    long addTotalsTo(Stats target);
+}
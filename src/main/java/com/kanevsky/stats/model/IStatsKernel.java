@@ -0,0 +1,12 @@
+package com.kanevsky.stats.model;
+
+/**
+ * Arithmetic on stats packed as {@link Stats#CATEGORIES} consecutive doubles, in {@link Stats}
+ * field order. Packed lines let a whole game line, or a run of lines for one key, be processed
+ * with SIMD instructions.
+ */
+public interface IStatsKernel {
+
+    /** Adds the first {@code lineCount} packed lines of {@code lines} into {@code acc}. */
+    void fold(double[] lines, int lineCount, double[] acc);
+}
@@ -0,0 +1,44 @@
+package com.kanevsky.stats.model;
+
+import java.util.Arrays;
+
+/**
+ * Game lines collected for one key, packed back to back so they can be folded into a single
+ * total with an {@link IStatsKernel}. Not thread-safe; meant for batch-local pre-aggregation.
+ */
+public class PackedLines {
+
+    private static final int INITIAL_LINES = 4;
+
+    private double[] lines = new double[INITIAL_LINES * Stats.CATEGORIES];
+    private int count;
+    private Stats first;
+
+    public void add(Stats gameStats) {
+        if (count == 0) {
+            first = gameStats;
+        }
+        if ((count + 1) * Stats.CATEGORIES > lines.length) {
+            lines = Arrays.copyOf(lines, lines.length << 1);
+        }
+        gameStats.copyTo(lines, count * Stats.CATEGORIES);
+        count++;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * The first line added, as given; convenient when a key received only one line.
+     */
+    public Stats first() {
+        return first;
+    }
+
+    public Stats fold(IStatsKernel kernel) {
+        double[] totals = new double[Stats.CATEGORIES];
+        kernel.fold(lines, count, totals);
+        return Stats.fromArray(totals, 0);
+    }
+}
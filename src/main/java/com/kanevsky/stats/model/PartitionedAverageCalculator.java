@@ -0,0 +1,70 @@
+package com.kanevsky.stats.model;
+
+import java.util.function.Supplier;
+
+/**
+ * Splits one aggregate into independent stripes so that concurrent writers to the same hot key
+ * (typically a team, which receives every line of all its players) land on different locks.
+ * A writer picks its stripe from its thread id; reads merge the totals of all stripes.
+ */
+public class PartitionedAverageCalculator implements IAverageCalculator {
+
+    private final IAverageCalculator[] stripes;
+    private final int mask;
+
+    public PartitionedAverageCalculator(int stripeCount, Supplier<IAverageCalculator> stripeFactory) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Stripe count must be positive: " + stripeCount);
+        }
+
+        int size = Integer.highestOneBit(stripeCount - 1) << 1;
+        stripes = new IAverageCalculator[Math.max(size, 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = stripeFactory.get();
+        }
+        mask = stripes.length - 1;
+    }
+
+    @Override
+    public void accept(Stats gameStats) {
+        currentStripe().accept(gameStats);
+    }
+
+    @Override
+    public void merge(Stats totals, long games) {
+        currentStripe().merge(totals, games);
+    }
+
+    @Override
+    public Stats getAverage() {
+        Stats totals = new Stats();
+        long games = addTotalsTo(totals);
+        return totals.averageOver(games);
+    }
+
+    @Override
+    public long getGamesPlayed() {
+        long games = 0;
+        for (IAverageCalculator stripe : stripes) {
+            games += stripe.getGamesPlayed();
+        }
+        return games;
+    }
+
+    @Override
+    public long addTotalsTo(Stats target) {
+        long games = 0;
+        for (IAverageCalculator stripe : stripes) {
+            games += stripe.addTotalsTo(target);
+        }
+        return games;
+    }
+
+    private IAverageCalculator currentStripe() {
+        return stripes[(int) Thread.currentThread().threadId() & mask];
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+}
@@ -0,0 +1,14 @@
+package com.kanevsky.stats.model;
+
+public class ScalarStatsKernel implements IStatsKernel {
+
+    @Override
+    public void fold(double[] lines, int lineCount, double[] acc) {
+        for (int line = 0; line < lineCount; line++) {
+            int base = line * Stats.CATEGORIES;
+            for (int i = 0; i < Stats.CATEGORIES; i++) {
+                acc[i] += lines[base + i];
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.kanevsky.stats.model;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * Calculator for keys that are only ever written by one thread, such as the keys owned by a
+ * sharded ingest worker. Writes are plain field updates bracketed by a sequence counter; readers
+ * on other threads retry until they observe an even, unchanged sequence, so they never see a
+ * half-applied game and never block the writer.
+ * <p>
+ * Concurrent calls to {@link #accept} or {@link #merge} from different threads lose updates.
+ */
+public class SingleWriterAverageCalculator implements IAverageCalculator {
+
+    private final Stats totals = new Stats();
+    private long gamesPlayed;
+
+    // Odd while a write is in progress.
+    private volatile long sequence;
+
+    @Override
+    public void accept(Stats gameStats) {
+        merge(gameStats, 1);
+    }
+
+    @Override
+    public void merge(Stats totals, long games) {
+        long current = sequence;
+        sequence = current + 1;
+        VarHandle.storeStoreFence();
+        this.totals.accumulate(totals);
+        gamesPlayed += games;
+        sequence = current + 2;
+    }
+
+    @Override
+    public Stats getAverage() {
+        Stats snapshot = new Stats();
+        long games = snapshot(snapshot);
+        return snapshot.averageOver(games);
+    }
+
+    @Override
+    public long getGamesPlayed() {
+        return snapshot(new Stats());
+    }
+
+    @Override
+    public long addTotalsTo(Stats target) {
+        Stats snapshot = new Stats();
+        long games = snapshot(snapshot);
+        target.accumulate(snapshot);
+        return games;
+    }
+
+    private long snapshot(Stats target) {
+        while (true) {
+            long before = sequence;
+            if ((before & 1) == 0) {
+                target.points = totals.points;
+                target.rebounds = totals.rebounds;
+                target.assists = totals.assists;
+                target.steals = totals.steals;
+                target.blocks = totals.blocks;
+                target.fouls = totals.fouls;
+                target.turnovers = totals.turnovers;
+                target.minutesPlayed = totals.minutesPlayed;
+                long games = gamesPlayed;
+                VarHandle.loadLoadFence();
+                if (sequence == before) {
+                    return games;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
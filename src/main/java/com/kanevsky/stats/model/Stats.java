@@ -8,6 +8,8 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Stats {
+    public static final int CATEGORIES = 8;
+
     double points;
     double rebounds;
     double assists;
@@ -26,6 +28,60 @@ public class Stats {
         return multiply(1/scalar);
     }
 
+    /**
+     * Writes the categories into {@code target} starting at {@code offset}, in field order.
+     */
+    public void copyTo(double[] target, int offset) {
+        target[offset] = points;
+        target[offset + 1] = rebounds;
+        target[offset + 2] = assists;
+        target[offset + 3] = steals;
+        target[offset + 4] = blocks;
+        target[offset + 5] = fouls;
+        target[offset + 6] = turnovers;
+        target[offset + 7] = minutesPlayed;
+    }
+
+    public static Stats fromArray(double[] source, int offset) {
+        return new Stats(source[offset], source[offset + 1], source[offset + 2], source[offset + 3],
+                source[offset + 4], source[offset + 5], source[offset + 6], source[offset + 7]);
+    }
+
+    /**
+     * Folds a game line into this instance in place and returns it; no allocation.
+     */
+    public Stats accumulate(Stats gameStats) {
+        points += gameStats.points;
+        rebounds += gameStats.rebounds;
+        assists += gameStats.assists;
+        steals += gameStats.steals;
+        blocks += gameStats.blocks;
+        fouls += gameStats.fouls;
+        turnovers += gameStats.turnovers;
+        minutesPlayed += gameStats.minutesPlayed;
+        return this;
+    }
+
+    /**
+     * Returns a new instance with every category negated; merging it with a games count of -1
+     * subtracts this line from an aggregate.
+     */
+    public Stats negate() {
+        return multiply(-1);
+    }
+
+    /**
+     * Treats this instance as per-category totals and returns their average over {@code games},
+     * allocating exactly one new instance. Zero games yields all-zero stats.
+     */
+    Stats averageOver(long games) {
+        if (games == 0) {
+            return new Stats();
+        }
+        return new Stats(points / games, rebounds / games, assists / games, steals / games, blocks / games,
+                fouls / games, turnovers / games, minutesPlayed / games);
+    }
+
     Stats add(Stats newStats){
         return new Stats(points + newStats.points, rebounds + newStats.rebounds, assists + newStats.assists,
                 steals + newStats.steals, blocks + newStats.blocks, fouls + newStats.fouls, turnovers + newStats.turnovers,
@@ -0,0 +1,48 @@
+package com.kanevsky.stats.model;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public final class StatsKernels {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private static final IStatsKernel SCALAR = new ScalarStatsKernel();
+    private static final IStatsKernel BEST = select();
+
+    private StatsKernels() {
+    }
+
+    public static IStatsKernel scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * The SIMD kernel when the JVM was started with {@code --add-modules jdk.incubator.vector} and
+     * its preferred vectors tile the categories, otherwise the scalar one.
+     */
+    public static IStatsKernel best() {
+        return BEST;
+    }
+
+    private static IStatsKernel select() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            log.info("{} not enabled, using scalar stats kernel", VECTOR_MODULE);
+            return SCALAR;
+        }
+
+        try {
+            if (!VectorStatsKernel.fitsCategories()) {
+                log.info("Vector species {} does not tile {} categories, using scalar stats kernel",
+                        VectorStatsKernel.species(), Stats.CATEGORIES);
+                return SCALAR;
+            }
+            IStatsKernel kernel = new VectorStatsKernel();
+            log.info("Using vector stats kernel ({})", VectorStatsKernel.species());
+            return kernel;
+        } catch (LinkageError e) {
+            log.warn("Vector stats kernel unavailable, using scalar kernel: {}", e.getMessage());
+            return SCALAR;
+        }
+    }
+}
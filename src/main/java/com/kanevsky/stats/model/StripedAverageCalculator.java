@@ -0,0 +1,82 @@
+package com.kanevsky.stats.model;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free calculator that keeps per-category running sums in striped adder cells and derives
+ * the average only on read. Writers to the same key never block each other.
+ * <p>
+ * Sums and the games count are read cell by cell without a global lock, so an average read while
+ * writes are in flight may include a game in some categories but not in others. Once writers are
+ * quiescent the average is exact.
+ */
+public class StripedAverageCalculator implements IAverageCalculator {
+
+    private final DoubleAdder points = new DoubleAdder();
+    private final DoubleAdder rebounds = new DoubleAdder();
+    private final DoubleAdder assists = new DoubleAdder();
+    private final DoubleAdder steals = new DoubleAdder();
+    private final DoubleAdder blocks = new DoubleAdder();
+    private final DoubleAdder fouls = new DoubleAdder();
+    private final DoubleAdder turnovers = new DoubleAdder();
+    private final DoubleAdder minutesPlayed = new DoubleAdder();
+    private final LongAdder gamesPlayed = new LongAdder();
+
+    @Override
+    public void accept(Stats gameStats) {
+        points.add(gameStats.points);
+        rebounds.add(gameStats.rebounds);
+        assists.add(gameStats.assists);
+        steals.add(gameStats.steals);
+        blocks.add(gameStats.blocks);
+        fouls.add(gameStats.fouls);
+        turnovers.add(gameStats.turnovers);
+        minutesPlayed.add(gameStats.minutesPlayed);
+        gamesPlayed.increment();
+    }
+
+    @Override
+    public void merge(Stats totals, long games) {
+        points.add(totals.points);
+        rebounds.add(totals.rebounds);
+        assists.add(totals.assists);
+        steals.add(totals.steals);
+        blocks.add(totals.blocks);
+        fouls.add(totals.fouls);
+        turnovers.add(totals.turnovers);
+        minutesPlayed.add(totals.minutesPlayed);
+        gamesPlayed.add(games);
+    }
+
+    @Override
+    public Stats getAverage() {
+        long games = gamesPlayed.sum();
+        if (games == 0) {
+            return new Stats();
+        }
+
+        return new Stats(points.sum() / games, rebounds.sum() / games, assists.sum() / games,
+                steals.sum() / games, blocks.sum() / games, fouls.sum() / games, turnovers.sum() / games,
+                minutesPlayed.sum() / games);
+    }
+
+    @Override
+    public long getGamesPlayed() {
+        return gamesPlayed.sum();
+    }
+
+    @Override
+    public long addTotalsTo(Stats target) {
+        long games = gamesPlayed.sum();
+        target.points += points.sum();
+        target.rebounds += rebounds.sum();
+        target.assists += assists.sum();
+        target.steals += steals.sum();
+        target.blocks += blocks.sum();
+        target.fouls += fouls.sum();
+        target.turnovers += turnovers.sum();
+        target.minutesPlayed += minutesPlayed.sum();
+        return games;
+    }
+}
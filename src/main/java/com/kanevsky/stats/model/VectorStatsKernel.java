@@ -0,0 +1,42 @@
+package com.kanevsky.stats.model;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernel on the incubating Vector API. The eight categories fill one 512-bit vector or two
+ * 256-bit ones. Lanes are summed in the same order as {@link ScalarStatsKernel}, so both kernels
+ * produce identical results.
+ * <p>
+ * Only load this class through {@link StatsKernels}, which checks that the
+ * {@code jdk.incubator.vector} module is present at runtime, and that the preferred species
+ * {@link #fitsCategories fits} the categories.
+ */
+class VectorStatsKernel implements IStatsKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    @Override
+    public void fold(double[] lines, int lineCount, double[] acc) {
+        for (int i = 0; i < Stats.CATEGORIES; i += LANES) {
+            DoubleVector sum = DoubleVector.fromArray(SPECIES, acc, i);
+            for (int line = 0; line < lineCount; line++) {
+                sum = sum.add(DoubleVector.fromArray(SPECIES, lines, line * Stats.CATEGORIES + i));
+            }
+            sum.intoArray(acc, i);
+        }
+    }
+
+    /**
+     * Whether whole vectors tile the categories exactly; wider vectors, or lane counts that do not
+     * divide them, would read past a line.
+     */
+    static boolean fitsCategories() {
+        return LANES <= Stats.CATEGORIES && Stats.CATEGORIES % LANES == 0;
+    }
+
+    static String species() {
+        return SPECIES.toString();
+    }
+}
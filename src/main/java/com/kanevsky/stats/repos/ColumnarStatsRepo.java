@@ -0,0 +1,141 @@
+package com.kanevsky.stats.repos;
+
+import com.kanevsky.stats.model.Stats;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays store: per-category sums and the games count live in dense primitive columns
+ * indexed by entity id, allocated in fixed-size chunks as ids grow. An entity costs 72 bytes of
+ * column space instead of a calculator, a lock and a {@link Stats} object graph.
+ * <p>
+ * Updates to one entity are guarded by a lock picked from a fixed stripe of lock objects, so reads
+ * always see all nine columns of an entity from the same point in time.
+ */
+public class ColumnarStatsRepo implements IStatsRepo {
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int LOCK_STRIPES = 256;
+
+    private final EntityDictionary dictionary;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private volatile Chunk[] chunks = new Chunk[0];
+
+    public ColumnarStatsRepo() {
+        this(new EntityDictionary());
+    }
+
+    public ColumnarStatsRepo(EntityDictionary dictionary) {
+        this.dictionary = dictionary;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public EntityDictionary getDictionary() {
+        return dictionary;
+    }
+
+    @Override
+    public void accept(int id, Stats singleGameStats) {
+        merge(id, singleGameStats, 1);
+    }
+
+    @Override
+    public void merge(int id, Stats totals, long games) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Invalid entity id: " + id);
+        }
+
+        Chunk chunk = chunkFor(id >>> CHUNK_SHIFT);
+        int slot = id & CHUNK_MASK;
+        synchronized (lockFor(id)) {
+            chunk.points[slot] += totals.getPoints();
+            chunk.rebounds[slot] += totals.getRebounds();
+            chunk.assists[slot] += totals.getAssists();
+            chunk.steals[slot] += totals.getSteals();
+            chunk.blocks[slot] += totals.getBlocks();
+            chunk.fouls[slot] += totals.getFouls();
+            chunk.turnovers[slot] += totals.getTurnovers();
+            chunk.minutesPlayed[slot] += totals.getMinutesPlayed();
+            chunk.gamesPlayed[slot] += games;
+        }
+    }
+
+    @Override
+    public Stats getStats(int id) {
+        Chunk[] current = chunks;
+        int chunkIndex = id >>> CHUNK_SHIFT;
+        if (id < 0 || chunkIndex >= current.length) {
+            return null;
+        }
+
+        Chunk chunk = current[chunkIndex];
+        int slot = id & CHUNK_MASK;
+        synchronized (lockFor(id)) {
+            long games = chunk.gamesPlayed[slot];
+            if (games == 0) {
+                return null;
+            }
+            return new Stats(chunk.points[slot] / games, chunk.rebounds[slot] / games, chunk.assists[slot] / games,
+                    chunk.steals[slot] / games, chunk.blocks[slot] / games, chunk.fouls[slot] / games,
+                    chunk.turnovers[slot] / games, chunk.minutesPlayed[slot] / games);
+        }
+    }
+
+    @Override
+    public long addTotalsTo(int id, Stats target) {
+        Chunk[] current = chunks;
+        int chunkIndex = id >>> CHUNK_SHIFT;
+        if (id < 0 || chunkIndex >= current.length) {
+            return 0;
+        }
+
+        Chunk chunk = current[chunkIndex];
+        int slot = id & CHUNK_MASK;
+        synchronized (lockFor(id)) {
+            target.accumulate(new Stats(chunk.points[slot], chunk.rebounds[slot], chunk.assists[slot],
+                    chunk.steals[slot], chunk.blocks[slot], chunk.fouls[slot], chunk.turnovers[slot],
+                    chunk.minutesPlayed[slot]));
+            return chunk.gamesPlayed[slot];
+        }
+    }
+
+    private Object lockFor(int id) {
+        return locks[id & (LOCK_STRIPES - 1)];
+    }
+
+    private Chunk chunkFor(int chunkIndex) {
+        Chunk[] current = chunks;
+        if (chunkIndex < current.length) {
+            return current[chunkIndex];
+        }
+        return growTo(chunkIndex);
+    }
+
+    private synchronized Chunk growTo(int chunkIndex) {
+        Chunk[] current = chunks;
+        if (chunkIndex >= current.length) {
+            current = Arrays.copyOf(current, chunkIndex + 1);
+            for (int i = chunks.length; i < current.length; i++) {
+                current[i] = new Chunk();
+            }
+            chunks = current;
+        }
+        return current[chunkIndex];
+    }
+
+    private static final class Chunk {
+        final double[] points = new double[CHUNK_SIZE];
+        final double[] rebounds = new double[CHUNK_SIZE];
+        final double[] assists = new double[CHUNK_SIZE];
+        final double[] steals = new double[CHUNK_SIZE];
+        final double[] blocks = new double[CHUNK_SIZE];
+        final double[] fouls = new double[CHUNK_SIZE];
+        final double[] turnovers = new double[CHUNK_SIZE];
+        final double[] minutesPlayed = new double[CHUNK_SIZE];
+        final long[] gamesPlayed = new long[CHUNK_SIZE];
+    }
+}
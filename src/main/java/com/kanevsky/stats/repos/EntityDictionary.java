@@ -0,0 +1,66 @@
+package com.kanevsky.stats.repos;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns entity names (players or teams) into dense int ids, assigned in arrival order starting
+ * at 0. Each name is hashed and retained once; afterwards repositories and indexes can address the
+ * entity by id alone.
+ */
+public class EntityDictionary {
+
+    public static final int NOT_FOUND = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private volatile Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[INITIAL_CAPACITY];
+    private int size;
+
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        return ids.computeIfAbsent(name, this::assign);
+    }
+
+    public int lookup(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : NOT_FOUND;
+    }
+
+    public String nameOf(int id) {
+        String[] current = names;
+        return id >= 0 && id < current.length ? current[id] : null;
+    }
+
+    /**
+     * Sizes an empty dictionary for {@code expected} names up front, so a bulk load does not
+     * rehash its way up. Must not race with {@link #intern}.
+     */
+    public synchronized void reserve(int expected) {
+        if (size > 0) {
+            throw new IllegalStateException("Only an empty dictionary can be reserved");
+        }
+        ids = new ConcurrentHashMap<>(Math.max(16, (int) Math.min(Integer.MAX_VALUE, expected * 4L / 3 + 1)));
+        names = new String[Math.max(INITIAL_CAPACITY, expected)];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Runs inside computeIfAbsent, so each name is assigned exactly once.
+    private synchronized int assign(String name) {
+        String[] current = names;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, current.length << 1);
+        }
+        current[size] = name;
+        names = current;
+        return size++;
+    }
+}
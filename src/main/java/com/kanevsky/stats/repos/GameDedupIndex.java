@@ -0,0 +1,344 @@
+package com.kanevsky.stats.repos;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Remembers which (game, player) lines have been ingested, so a retried line is recognised instead
+ * of being counted twice.
+ * <p>
+ * Each active game keeps a small open-addressing set of 64-bit player name fingerprints. Once more
+ * than {@code maxActiveGames} games are active, the least recently used quarter is retired: their
+ * fingerprints go into a Bloom filter and their sets are dropped. A line that is in neither its
+ * game's set nor the filter is new. The filter can report a false positive, so a first line for a
+ * retired game is dropped with probability {@code falsePositiveRate}. When the filter holds
+ * {@code retiredLines} lines it is replaced by a fresh one. The previous filter is still checked, so
+ * at most two filters are kept.
+ */
+public class GameDedupIndex {
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    // Slot markers of the per-game sets; fingerprints are kept clear of both.
+    private static final long EMPTY = 0;
+    private static final long REMOVED = 1;
+
+    private static final int ADDED = 0;
+    private static final int DUPLICATE = 1;
+    private static final int GAME_RETIRED = 2;
+
+    private final int maxActiveGames;
+    private final long retiredLines;
+    private final double falsePositiveRate;
+
+    private final Map<String, ActiveGame> activeGames = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+
+    // Filters are only written by the thread holding retireLock, and are created on first use.
+    private final ReentrantLock retireLock = new ReentrantLock();
+    private volatile BloomFilter<Long> retired;
+    private volatile BloomFilter<Long> previousRetired;
+    private final AtomicLong retiredGames = new AtomicLong();
+
+    private final AtomicLong duplicates = new AtomicLong();
+
+    public GameDedupIndex() {
+        this(10_000, 1_000_000, 1e-6);
+    }
+
+    public GameDedupIndex(int maxActiveGames, long retiredLines, double falsePositiveRate) {
+        this.maxActiveGames = maxActiveGames;
+        this.retiredLines = retiredLines;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Records the line and returns true, or returns false if it was recorded before.
+     */
+    public boolean firstSeen(String gameId, String playerName) {
+        if (add(gameId, fingerprint(playerName))) {
+            return true;
+        }
+        duplicates.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Records a line that is applied regardless, such as one replayed from the write-ahead log. It is
+     * not counted as a duplicate if it was recorded before.
+     */
+    public void markSeen(String gameId, String playerName) {
+        add(gameId, fingerprint(playerName));
+    }
+
+    /**
+     * Removes a line recorded by {@link #firstSeen} that could not be applied after all, so that a
+     * retry is accepted. Lines of retired games cannot be removed.
+     */
+    public void forget(String gameId, String playerName) {
+        ActiveGame game = activeGames.get(gameId);
+        if (game != null) {
+            game.remove(fingerprint(playerName));
+        }
+    }
+
+    /**
+     * Writes the active games, least recently used first, and the Bloom filters of the retired ones.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        // Holding retireLock keeps games from being retired and the filters from changing meanwhile.
+        retireLock.lock();
+        try {
+            List<Map.Entry<String, ActiveGame>> games = new ArrayList<>(activeGames.entrySet());
+            games.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+            out.writeInt(games.size());
+            for (Map.Entry<String, ActiveGame> entry : games) {
+                writeString(out, entry.getKey());
+                entry.getValue().writeTo(out);
+            }
+            writeFilter(out, previousRetired);
+            writeFilter(out, retired);
+            out.writeLong(retiredGames.get());
+        } finally {
+            retireLock.unlock();
+        }
+    }
+
+    /**
+     * Restores what {@link #writeTo} wrote into an index that has not been used yet.
+     */
+    public void readFrom(DataInputStream in) throws IOException {
+        int games = in.readInt();
+        for (int i = 0; i < games; i++) {
+            String gameId = readString(in);
+            ActiveGame game = activeGames.computeIfAbsent(gameId, id -> new ActiveGame());
+            int lines = in.readInt();
+            for (int line = 0; line < lines; line++) {
+                game.add(gameId, in.readLong(), clock.incrementAndGet());
+            }
+        }
+        retireLock.lock();
+        try {
+            previousRetired = readFilter(in);
+            retired = readFilter(in);
+        } finally {
+            retireLock.unlock();
+        }
+        retiredGames.addAndGet(in.readLong());
+        if (activeGames.size() > maxActiveGames) {
+            retireLeastRecentlyUsed();
+        }
+    }
+
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    public int getActiveGames() {
+        return activeGames.size();
+    }
+
+    public long getRetiredGames() {
+        return retiredGames.get();
+    }
+
+    private boolean add(String gameId, long player) {
+        while (true) {
+            ActiveGame game = activeGames.computeIfAbsent(gameId, id -> new ActiveGame());
+            int result = game.add(gameId, player, clock.incrementAndGet());
+            if (result == GAME_RETIRED) {
+                // Retired between the lookup and the add; the next lookup starts it afresh.
+                continue;
+            }
+            if (result == DUPLICATE) {
+                return false;
+            }
+            if (activeGames.size() > maxActiveGames) {
+                retireLeastRecentlyUsed();
+            }
+            return true;
+        }
+    }
+
+    private boolean mightBeRetired(String gameId, long player) {
+        BloomFilter<Long> current = retired;
+        if (current == null) {
+            return false;
+        }
+        long key = lineKey(gameId, player);
+        BloomFilter<Long> previous = previousRetired;
+        return current.mightContain(key) || previous != null && previous.mightContain(key);
+    }
+
+    private void retireLeastRecentlyUsed() {
+        if (!retireLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Map.Entry<String, ActiveGame>> games = new ArrayList<>(activeGames.entrySet());
+            int excess = games.size() - maxActiveGames * 3 / 4;
+            if (excess <= 0) {
+                return;
+            }
+            games.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+            for (Map.Entry<String, ActiveGame> entry : games.subList(0, excess)) {
+                entry.getValue().retire(entry.getKey());
+                activeGames.remove(entry.getKey(), entry.getValue());
+                retiredGames.incrementAndGet();
+            }
+        } finally {
+            retireLock.unlock();
+        }
+    }
+
+    // Called under retireLock.
+    private void putRetired(String gameId, long player) {
+        if (retired == null || retired.approximateElementCount() >= retiredLines) {
+            previousRetired = retired;
+            retired = BloomFilter.create(Funnels.longFunnel(), retiredLines, falsePositiveRate);
+        }
+        retired.put(lineKey(gameId, player));
+    }
+
+    private static void writeFilter(DataOutputStream out, BloomFilter<Long> filter) throws IOException {
+        out.writeBoolean(filter != null);
+        if (filter != null) {
+            filter.writeTo(out);
+        }
+    }
+
+    private static BloomFilter<Long> readFilter(DataInputStream in) throws IOException {
+        return in.readBoolean() ? BloomFilter.readFrom(in, Funnels.longFunnel()) : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long lineKey(String gameId, long player) {
+        return HASH.newHasher().putString(gameId, StandardCharsets.UTF_8).putLong(player).hash().asLong();
+    }
+
+    private static long fingerprint(String playerName) {
+        long fingerprint = HASH.hashString(playerName, StandardCharsets.UTF_8).asLong();
+        return fingerprint == EMPTY || fingerprint == REMOVED ? fingerprint + 2 : fingerprint;
+    }
+
+    /**
+     * Linear-probing set of player fingerprints; a box score has a few dozen lines per game.
+     */
+    private final class ActiveGame {
+        private long[] slots = new long[32];
+        private int used;
+        private boolean retired;
+        volatile long lastUsed;
+
+        synchronized int add(String gameId, long player, long now) {
+            if (retired) {
+                return GAME_RETIRED;
+            }
+            lastUsed = now;
+            int mask = slots.length - 1;
+            int free = -1;
+            for (int slot = (int) player & mask; ; slot = (slot + 1) & mask) {
+                long value = slots[slot];
+                if (value == player) {
+                    return DUPLICATE;
+                }
+                if (value == REMOVED && free < 0) {
+                    free = slot;
+                }
+                if (value == EMPTY) {
+                    if (free < 0) {
+                        free = slot;
+                    }
+                    break;
+                }
+            }
+            // A game that was retired before may have come back.
+            if (mightBeRetired(gameId, player)) {
+                return DUPLICATE;
+            }
+            if (slots[free] == EMPTY) {
+                used++;
+            }
+            slots[free] = player;
+            if (used * 2 > slots.length) {
+                rehash();
+            }
+            return ADDED;
+        }
+
+        synchronized void remove(long player) {
+            if (retired) {
+                return;
+            }
+            int mask = slots.length - 1;
+            for (int slot = (int) player & mask; slots[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (slots[slot] == player) {
+                    slots[slot] = REMOVED;
+                    return;
+                }
+            }
+        }
+
+        synchronized void writeTo(DataOutputStream out) throws IOException {
+            long[] players = retired ? new long[0]
+                    : Arrays.stream(slots).filter(value -> value != EMPTY && value != REMOVED).toArray();
+            out.writeInt(players.length);
+            for (long player : players) {
+                out.writeLong(player);
+            }
+        }
+
+        synchronized void retire(String gameId) {
+            for (long value : slots) {
+                if (value != EMPTY && value != REMOVED) {
+                    putRetired(gameId, value);
+                }
+            }
+            retired = true;
+            slots = null;
+        }
+
+        private void rehash() {
+            long[] old = slots;
+            slots = new long[old.length * 2];
+            used = 0;
+            int mask = slots.length - 1;
+            for (long value : old) {
+                if (value != EMPTY && value != REMOVED) {
+                    int slot = (int) value & mask;
+                    while (slots[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    slots[slot] = value;
+                    used++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.kanevsky.stats.repos;
+
+/**
+ * Told the name of every key whose aggregate was just updated. Called on the writing thread, so
+ * implementations must be quick and must not block.
+ */
+@FunctionalInterface
+public interface IStatsChangeListener {
+    void onChange(String name);
+}
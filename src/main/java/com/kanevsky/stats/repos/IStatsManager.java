@@ -6,4 +6,41 @@ public interface IStatsManager {
 
     boolean submit(Stats stats, String name);
     Stats getStats(String name);
+
+    /**
+     * Applies per-category {@code totals} pre-aggregated from {@code games} game lines as a single update.
+     */
+    boolean merge(Stats totals, long games, String name);
+
+    /**
+     * Subtracts one game line submitted before for {@code name}. Lines are not remembered, so it
+     * is up to the caller that {@code stats} really is such a line; one that is not skews the
+     * averages.
+     *
+     * @return false, changing nothing, unless {@link #canRetract} holds
+     */
+    boolean retract(Stats stats, String name);
+
+    /**
+     * Whether {@code name} has a game to subtract and {@code stats} would leave none of its totals
+     * negative, as subtracting any line submitted before would.
+     */
+    boolean canRetract(Stats stats, String name);
+
+    /**
+     * Returns the number of game lines currently aggregated for {@code name} (0 if unknown).
+     */
+    long getGames(String name);
+
+    /**
+     * Interns {@code name} and returns its dense id for use with the id-based methods below.
+     */
+    int register(String name);
+    boolean submit(Stats stats, int id);
+    Stats getStats(int id);
+
+    /**
+     * Sets the listener notified after each successful update; {@code null} (the default) removes it.
+     */
+    void setChangeListener(IStatsChangeListener listener);
 }
@@ -0,0 +1,45 @@
+package com.kanevsky.stats.repos;
+
+import com.kanevsky.stats.model.Stats;
+
+public interface IStatsRepo {
+
+    EntityDictionary getDictionary();
+
+    void accept(int id, Stats singleGameStats);
+
+    /**
+     * Adds pre-aggregated per-category {@code totals} covering {@code games} game lines in one step.
+     * Negated totals with a negative {@code games} subtract lines that were added before.
+     */
+    void merge(int id, Stats totals, long games);
+
+    Stats getStats(int id);
+
+    /**
+     * Adds the per-category totals of entity {@code id} into {@code target} and returns the number
+     * of games they cover (0 for an unknown id).
+     */
+    long addTotalsTo(int id, Stats target);
+
+    default int register(String key) {
+        return getDictionary().intern(key);
+    }
+
+    default void accept(String key, Stats singleGameStats) {
+        accept(getDictionary().intern(key), singleGameStats);
+    }
+
+    default void merge(String key, Stats totals, long games) {
+        merge(getDictionary().intern(key), totals, games);
+    }
+
+    default Stats getStats(String key) {
+        int id = getDictionary().lookup(key);
+        if (id == EntityDictionary.NOT_FOUND) {
+            return null;
+        }
+
+        return getStats(id);
+    }
+}
@@ -0,0 +1,84 @@
+package com.kanevsky.stats.repos;
+
+import com.kanevsky.stats.model.Stats;
+
+public interface IWriteAheadLog {
+
+    IWriteAheadLog DISABLED = new IWriteAheadLog() {
+        @Override
+        public long append(String[] playerNames, String[] teamNames, Stats[] stats) {
+            return 0;
+        }
+
+        @Override
+        public long append(String[] gameIds, String[] playerNames, String[] teamNames, Stats[] stats,
+                           boolean[] retractions) {
+            return 0;
+        }
+
+        @Override
+        public long rollBack(String[] gameIds, String[] playerNames, String[] teamNames, Stats[] stats) {
+            return 0;
+        }
+
+        @Override
+        public void commit(long position) {
+        }
+
+        @Override
+        public long position() {
+            return 0;
+        }
+
+        @Override
+        public void truncateBefore(long position) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Appends the game lines of a batch, skipping lines with a blank name or null stats.
+     *
+     * @return the log position after the batch, to pass to {@link #commit}
+     */
+    long append(String[] playerNames, String[] teamNames, Stats[] stats);
+
+    /**
+     * {@link #append(String[], String[], Stats[])} where line {@code i} is logged with game id
+     * {@code gameIds[i]}, and as a retraction of a line appended before if {@code retractions[i]} is
+     * set. Either array may be null, as may the game ids.
+     */
+    long append(String[] gameIds, String[] playerNames, String[] teamNames, Stats[] stats, boolean[] retractions);
+
+    /**
+     * Appends retractions of lines appended before but then rejected, so that a replay neither counts
+     * them nor treats their game id and player as seen.
+     *
+     * @return the log position after the batch, to pass to {@link #commit}
+     */
+    long rollBack(String[] gameIds, String[] playerNames, String[] teamNames, Stats[] stats);
+
+    /**
+     * Returns once everything up to {@code position} is as durable as the configured
+     * {@link WalDurability} promises.
+     */
+    void commit(long position);
+
+    /**
+     * Returns the position after the last append.
+     */
+    long position();
+
+    /**
+     * Deletes segments that lie entirely before {@code position}, once a snapshot covers them.
+     */
+    void truncateBefore(long position);
+
+    /**
+     * Makes everything appended durable as far as the durability level allows and releases the log.
+     */
+    void close();
+}
@@ -0,0 +1,291 @@
+package com.kanevsky.stats.repos;
+
+import com.kanevsky.stats.model.Stats;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only write-ahead log of game lines in memory-mapped segment files. Appending copies the
+ * pre-encoded records into the mapped segment under a short lock; durability is decided separately
+ * by {@link #commit}, so the fsync cost can be shared.
+ * <p>
+ * With {@link WalDurability#SYNC}, a committing thread either forces the segment itself or waits
+ * for the force already in progress and then checks whether it covered its position. One force
+ * thus covers every batch appended before it started (group commit).
+ * <p>
+ * Segments are named after the log position of their first byte. Positions increase across segments and
+ * restarts, as a new process always starts a fresh segment after the last existing one.
+ */
+@Slf4j
+public class MappedWriteAheadLog implements IWriteAheadLog, AutoCloseable {
+
+    static final String SEGMENT_SUFFIX = ".wal";
+
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final WalDurability durability;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private Segment current;
+    private volatile long writtenPosition;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition syncDone = syncLock.newCondition();
+    private boolean syncing;
+    private volatile long syncedPosition;
+    private final AtomicLong syncCount = new AtomicLong();
+
+    private final ScheduledExecutorService flusher;
+
+    public MappedWriteAheadLog(Path directory, int segmentBytes, WalDurability durability, long flushIntervalMillis)
+            throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.durability = durability;
+
+        Files.createDirectories(directory);
+        long base = 0;
+        for (Path segment : segments(directory)) {
+            base = Math.max(base, baseOf(segment) + Files.size(segment));
+        }
+        current = Segment.create(directory, base, segmentBytes);
+        writtenPosition = base;
+        syncedPosition = base;
+
+        if (durability == WalDurability.ASYNC) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "wal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+        log.info("Write-ahead log in {} from position {} ({} durability)", directory, base, durability);
+    }
+
+    @Override
+    public long append(String[] playerNames, String[] teamNames, Stats[] stats) {
+        return append(null, playerNames, teamNames, stats, null);
+    }
+
+    @Override
+    public long append(String[] gameIds, String[] playerNames, String[] teamNames, Stats[] stats,
+                       boolean[] retractions) {
+        return append(WalCodec.encode(gameIds, playerNames, teamNames, stats, retractions, false,
+                Math.min(MAX_RECORD_BYTES, segmentBytes)));
+    }
+
+    @Override
+    public long rollBack(String[] gameIds, String[] playerNames, String[] teamNames, Stats[] stats) {
+        return append(WalCodec.encode(gameIds, playerNames, teamNames, stats, null, true,
+                Math.min(MAX_RECORD_BYTES, segmentBytes)));
+    }
+
+    private long append(List<ByteBuffer> records) {
+        appendLock.lock();
+        try {
+            for (ByteBuffer record : records) {
+                if (current.buffer.remaining() < record.remaining()) {
+                    roll(record.remaining());
+                }
+                current.buffer.put(record);
+            }
+            writtenPosition = current.base + current.buffer.position();
+            return writtenPosition;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void commit(long position) {
+        if (durability != WalDurability.SYNC || syncedPosition >= position) {
+            return;
+        }
+
+        syncLock.lock();
+        try {
+            while (syncedPosition < position) {
+                if (syncing) {
+                    syncDone.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                syncLock.unlock();
+                long forced;
+                try {
+                    forced = force();
+                } finally {
+                    syncLock.lock();
+                    syncing = false;
+                }
+                syncedPosition = Math.max(syncedPosition, forced);
+                syncDone.signalAll();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    @Override
+    public long position() {
+        return writtenPosition;
+    }
+
+    @Override
+    public void truncateBefore(long position) {
+        long currentBase;
+        appendLock.lock();
+        try {
+            currentBase = current.base;
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            for (Path segment : segments(directory)) {
+                long base = baseOf(segment);
+                if (base < currentBase && base + Files.size(segment) <= position) {
+                    Files.delete(segment);
+                    log.info("Deleted write-ahead log segment {}", segment.getFileName());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to truncate write-ahead log before position {}", position, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        appendLock.lock();
+        try {
+            if (durability != WalDurability.NONE) {
+                current.buffer.force();
+            }
+            current.channel.close();
+            log.info("Closed write-ahead log at position {} after {} syncs", writtenPosition, syncCount.get());
+        } catch (IOException e) {
+            log.warn("Failed to close write-ahead log segment", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long getSyncedPosition() {
+        return syncedPosition;
+    }
+
+    public long getSyncCount() {
+        return syncCount.get();
+    }
+
+    private void flush() {
+        try {
+            long forced = force();
+            // A SYNC append may have forced further meanwhile; never move the synced position back.
+            syncLock.lock();
+            try {
+                syncedPosition = Math.max(syncedPosition, forced);
+                syncDone.signalAll();
+            } finally {
+                syncLock.unlock();
+            }
+        } catch (RuntimeException e) {
+            log.error("Write-ahead log flush failed", e);
+        }
+    }
+
+    // Forces the written part of the current segment; returns the position it covers.
+    private long force() {
+        Segment segment;
+        int written;
+        appendLock.lock();
+        try {
+            segment = current;
+            written = segment.buffer.position();
+        } finally {
+            appendLock.unlock();
+        }
+        int from = segment.forced;
+        if (written > from) {
+            segment.buffer.force(from, written - from);
+            segment.forced = written;
+            syncCount.incrementAndGet();
+        }
+        return segment.base + written;
+    }
+
+    // Called under appendLock. The full segment is forced before the next one takes writes, so a
+    // force of the new segment also covers every position before it.
+    private void roll(int recordBytes) {
+        if (recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("Record of " + recordBytes + " bytes exceeds the segment size");
+        }
+        Segment previous = current;
+        try {
+            if (durability != WalDurability.NONE) {
+                previous.buffer.force();
+            }
+            current = Segment.create(directory, previous.base + previous.buffer.capacity(), segmentBytes);
+            previous.channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll write-ahead log segment", e);
+        }
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted((a, b) -> Long.compare(baseOf(a), baseOf(b)))
+                    .toList();
+        }
+    }
+
+    static long baseOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class Segment {
+        final long base;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        // Only the syncing thread (or the flusher) reads and advances this.
+        volatile int forced;
+
+        private Segment(long base, FileChannel channel, MappedByteBuffer buffer) {
+            this.base = base;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path directory, long base, int size) throws IOException {
+            Path file = directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+            FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(base, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+}
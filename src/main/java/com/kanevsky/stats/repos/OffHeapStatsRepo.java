@@ -0,0 +1,149 @@
+package com.kanevsky.stats.repos;
+
+import com.kanevsky.stats.model.Stats;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Keeps aggregates outside the Java heap, so the GC neither scans nor copies them and heap size
+ * does not grow with cardinality (only the name dictionary stays on heap). Each entity is a
+ * fixed 72-byte record of eight double sums followed by a long games count, stored in direct
+ * memory slabs allocated as ids grow.
+ * <p>
+ * Fields are updated atomically through {@link VarHandle} views without any lock. Like
+ * {@link com.kanevsky.stats.model.StripedAverageCalculator}, a read racing with writers may see
+ * a game in some fields but not others; once writers are quiescent the average is exact.
+ * Slabs count against {@code -XX:MaxDirectMemorySize}.
+ */
+public class OffHeapStatsRepo implements IStatsRepo {
+    private static final VarHandle DOUBLE = MethodHandles.byteBufferViewVarHandle(double[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final int CATEGORIES = 8;
+    private static final int RECORD_BYTES = (CATEGORIES + 1) * Long.BYTES;
+    private static final int GAMES_OFFSET = CATEGORIES * Double.BYTES;
+
+    private static final int SLAB_SHIFT = 14;
+    private static final int SLAB_SIZE = 1 << SLAB_SHIFT;
+    private static final int SLAB_MASK = SLAB_SIZE - 1;
+
+    private final EntityDictionary dictionary;
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+
+    public OffHeapStatsRepo() {
+        this(new EntityDictionary());
+    }
+
+    public OffHeapStatsRepo(EntityDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public EntityDictionary getDictionary() {
+        return dictionary;
+    }
+
+    @Override
+    public void accept(int id, Stats singleGameStats) {
+        merge(id, singleGameStats, 1);
+    }
+
+    @Override
+    public void merge(int id, Stats totals, long games) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Invalid entity id: " + id);
+        }
+
+        ByteBuffer slab = slabFor(id >>> SLAB_SHIFT);
+        int base = (id & SLAB_MASK) * RECORD_BYTES;
+        add(slab, base, totals.getPoints());
+        add(slab, base + Double.BYTES, totals.getRebounds());
+        add(slab, base + 2 * Double.BYTES, totals.getAssists());
+        add(slab, base + 3 * Double.BYTES, totals.getSteals());
+        add(slab, base + 4 * Double.BYTES, totals.getBlocks());
+        add(slab, base + 5 * Double.BYTES, totals.getFouls());
+        add(slab, base + 6 * Double.BYTES, totals.getTurnovers());
+        add(slab, base + 7 * Double.BYTES, totals.getMinutesPlayed());
+        LONG.getAndAdd(slab, base + GAMES_OFFSET, games);
+    }
+
+    @Override
+    public Stats getStats(int id) {
+        ByteBuffer[] current = slabs;
+        int slabIndex = id >>> SLAB_SHIFT;
+        if (id < 0 || slabIndex >= current.length) {
+            return null;
+        }
+
+        ByteBuffer slab = current[slabIndex];
+        int base = (id & SLAB_MASK) * RECORD_BYTES;
+        long games = (long) LONG.getVolatile(slab, base + GAMES_OFFSET);
+        if (games == 0) {
+            return null;
+        }
+        return new Stats(sum(slab, base) / games, sum(slab, base + Double.BYTES) / games,
+                sum(slab, base + 2 * Double.BYTES) / games, sum(slab, base + 3 * Double.BYTES) / games,
+                sum(slab, base + 4 * Double.BYTES) / games, sum(slab, base + 5 * Double.BYTES) / games,
+                sum(slab, base + 6 * Double.BYTES) / games, sum(slab, base + 7 * Double.BYTES) / games);
+    }
+
+    @Override
+    public long addTotalsTo(int id, Stats target) {
+        ByteBuffer[] current = slabs;
+        int slabIndex = id >>> SLAB_SHIFT;
+        if (id < 0 || slabIndex >= current.length) {
+            return 0;
+        }
+
+        ByteBuffer slab = current[slabIndex];
+        int base = (id & SLAB_MASK) * RECORD_BYTES;
+        long games = (long) LONG.getVolatile(slab, base + GAMES_OFFSET);
+        target.accumulate(new Stats(sum(slab, base), sum(slab, base + Double.BYTES),
+                sum(slab, base + 2 * Double.BYTES), sum(slab, base + 3 * Double.BYTES),
+                sum(slab, base + 4 * Double.BYTES), sum(slab, base + 5 * Double.BYTES),
+                sum(slab, base + 6 * Double.BYTES), sum(slab, base + 7 * Double.BYTES)));
+        return games;
+    }
+
+    private static void add(ByteBuffer slab, int offset, double value) {
+        if (value == 0) {
+            return;
+        }
+        double current;
+        do {
+            current = (double) DOUBLE.getVolatile(slab, offset);
+        } while (!DOUBLE.compareAndSet(slab, offset, current, current + value));
+    }
+
+    private static double sum(ByteBuffer slab, int offset) {
+        return (double) DOUBLE.getVolatile(slab, offset);
+    }
+
+    private ByteBuffer slabFor(int slabIndex) {
+        ByteBuffer[] current = slabs;
+        if (slabIndex < current.length) {
+            return current[slabIndex];
+        }
+        return growTo(slabIndex);
+    }
+
+    private synchronized ByteBuffer growTo(int slabIndex) {
+        ByteBuffer[] current = slabs;
+        if (slabIndex >= current.length) {
+            current = Arrays.copyOf(current, slabIndex + 1);
+            for (int i = slabs.length; i < current.length; i++) {
+                // Direct memory is zeroed on allocation; the aligned slice keeps every field 8-byte
+                // aligned, which atomic VarHandle access requires.
+                current[i] = ByteBuffer.allocateDirect(SLAB_SIZE * RECORD_BYTES + Long.BYTES)
+                        .alignedSlice(Long.BYTES)
+                        .order(ByteOrder.nativeOrder());
+            }
+            slabs = current;
+        }
+        return current[slabIndex];
+    }
+}
@@ -2,11 +2,17 @@ package com.kanevsky.stats.repos;
 
 import com.kanevsky.stats.model.Stats;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @RequiredArgsConstructor
 public class StatsManager implements IStatsManager {
 
-    private final StatsRepo statsRepo;
+    private final IStatsRepo statsRepo;
+
+    private static final double RETRACT_TOLERANCE = 1e-9;
+
+    private volatile IStatsChangeListener changeListener;
 
     @Override
     public boolean submit(Stats gameStats, String name) {
@@ -16,14 +22,128 @@ public class StatsManager implements IStatsManager {
 
         try {
             statsRepo.accept(name, gameStats);
-            return true;
         } catch (Exception e) {
             return false;
         }
+        notifyChange(name);
+        return true;
+    }
+
+    @Override
+    public boolean merge(Stats totals, long games, String name) {
+        if (totals == null || games <= 0 || name == null || name.trim().isEmpty()) {
+            return false;
+        }
+
+        try {
+            statsRepo.merge(name, totals, games);
+        } catch (Exception e) {
+            return false;
+        }
+        notifyChange(name);
+        return true;
+    }
+
+    @Override
+    public boolean retract(Stats gameStats, String name) {
+        if (gameStats == null || name == null) {
+            return false;
+        }
+
+        int id = statsRepo.getDictionary().lookup(name);
+        try {
+            // Callers serialize retractions of a key, so the totals cannot drop between check and merge.
+            if (id == EntityDictionary.NOT_FOUND || !canRetract(gameStats, id)) {
+                return false;
+            }
+            statsRepo.merge(id, gameStats.negate(), -1);
+        } catch (Exception e) {
+            return false;
+        }
+        notifyChange(name);
+        return true;
+    }
+
+    @Override
+    public boolean canRetract(Stats gameStats, String name) {
+        int id = gameStats == null || name == null ? EntityDictionary.NOT_FOUND : statsRepo.getDictionary().lookup(name);
+        return id != EntityDictionary.NOT_FOUND && canRetract(gameStats, id);
+    }
+
+    private boolean canRetract(Stats gameStats, int id) {
+        Stats totals = new Stats();
+        if (statsRepo.addTotalsTo(id, totals) <= 0) {
+            return false;
+        }
+        double[] remaining = new double[Stats.CATEGORIES];
+        double[] retracted = new double[Stats.CATEGORIES];
+        totals.copyTo(remaining, 0);
+        gameStats.copyTo(retracted, 0);
+        for (int i = 0; i < Stats.CATEGORIES; i++) {
+            // Summed totals may be off by rounding in their last bits.
+            if (remaining[i] - retracted[i] < -RETRACT_TOLERANCE * Math.max(1, remaining[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long getGames(String name) {
+        int id = name == null ? EntityDictionary.NOT_FOUND : statsRepo.getDictionary().lookup(name);
+        return id == EntityDictionary.NOT_FOUND ? 0 : statsRepo.addTotalsTo(id, new Stats());
     }
 
     @Override
     public Stats getStats(String name) {
         return statsRepo.getStats(name);
     }
-}
\ No newline at end of file
+
+    @Override
+    public int register(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be empty");
+        }
+        return statsRepo.register(name);
+    }
+
+    @Override
+    public boolean submit(Stats gameStats, int id) {
+        if (gameStats == null || id < 0) {
+            return false;
+        }
+
+        try {
+            statsRepo.accept(id, gameStats);
+        } catch (Exception e) {
+            return false;
+        }
+        if (changeListener != null) {
+            notifyChange(statsRepo.getDictionary().nameOf(id));
+        }
+        return true;
+    }
+
+    @Override
+    public Stats getStats(int id) {
+        return statsRepo.getStats(id);
+    }
+
+    @Override
+    public void setChangeListener(IStatsChangeListener listener) {
+        this.changeListener = listener;
+    }
+
+    // The change is applied by now, so a failing listener must not report it as failed.
+    private void notifyChange(String name) {
+        IStatsChangeListener listener = changeListener;
+        if (listener == null) {
+            return;
+        }
+        try {
+            listener.onChange(name);
+        } catch (RuntimeException e) {
+            log.warn("Change listener failed for {}: {}", name, e.toString());
+        }
+    }
+}
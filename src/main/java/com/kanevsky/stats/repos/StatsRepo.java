@@ -1,30 +1,115 @@
 package com.kanevsky.stats.repos;
 
 import com.kanevsky.stats.model.AverageCalculator;
+import com.kanevsky.stats.model.IAverageCalculator;
 import com.kanevsky.stats.model.Stats;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
 
-public class StatsRepo {
-    private Map<String, AverageCalculator> statsMap = new ConcurrentHashMap<>();
+/**
+ * Aggregates keyed by entity id. Names are translated through an {@link EntityDictionary}, and
+ * calculators live in fixed-size chunks indexed by id, so the id-based methods skip string hashing
+ * entirely.
+ */
+public class StatsRepo implements IStatsRepo {
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
 
-    public void accept(String key, Stats singleGameStats) {
-        statsMap.compute(key, (k, average) -> {
-            if (average == null) {
-                average = new AverageCalculator();
-            }
-            average.accept(singleGameStats);
-            return average;
-        });
+    private final EntityDictionary dictionary;
+    private final Supplier<IAverageCalculator> calculatorFactory;
+    @SuppressWarnings("unchecked")
+    private volatile AtomicReferenceArray<IAverageCalculator>[] chunks = new AtomicReferenceArray[0];
+
+    public StatsRepo() {
+        this(AverageCalculator::new);
+    }
+
+    public StatsRepo(Supplier<IAverageCalculator> calculatorFactory) {
+        this(new EntityDictionary(), calculatorFactory);
+    }
+
+    public StatsRepo(EntityDictionary dictionary, Supplier<IAverageCalculator> calculatorFactory) {
+        this.dictionary = dictionary;
+        this.calculatorFactory = calculatorFactory;
+    }
+
+    @Override
+    public EntityDictionary getDictionary() {
+        return dictionary;
     }
 
-    public Stats getStats(String key){
-        AverageCalculator calculator = statsMap.get(key);
-        if (calculator != null) {
+    @Override
+    public void accept(int id, Stats singleGameStats) {
+        // The calculator is thread-safe on its own, so it is fed without any repo-level lock.
+        calculatorFor(id).accept(singleGameStats);
+    }
+
+    @Override
+    public void merge(int id, Stats totals, long games) {
+        calculatorFor(id).merge(totals, games);
+    }
+
+    @Override
+    public Stats getStats(int id) {
+        IAverageCalculator calculator = existingCalculator(id);
+        // A key whose every line was retracted reads as unknown, as in the other stores.
+        if (calculator != null && calculator.getGamesPlayed() != 0) {
             return calculator.getAverage();
         }
 
         return null;
     }
+
+    @Override
+    public long addTotalsTo(int id, Stats target) {
+        IAverageCalculator calculator = existingCalculator(id);
+        return calculator != null ? calculator.addTotalsTo(target) : 0;
+    }
+
+    private IAverageCalculator existingCalculator(int id) {
+        AtomicReferenceArray<IAverageCalculator>[] current = chunks;
+        int chunkIndex = id >>> CHUNK_SHIFT;
+        if (id < 0 || chunkIndex >= current.length) {
+            return null;
+        }
+        return current[chunkIndex].get(id & CHUNK_MASK);
+    }
+
+    private IAverageCalculator calculatorFor(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Invalid entity id: " + id);
+        }
+
+        AtomicReferenceArray<IAverageCalculator> chunk = chunkFor(id >>> CHUNK_SHIFT);
+        int slot = id & CHUNK_MASK;
+        IAverageCalculator calculator = chunk.get(slot);
+        if (calculator == null) {
+            IAverageCalculator created = calculatorFactory.get();
+            calculator = chunk.compareAndSet(slot, null, created) ? created : chunk.get(slot);
+        }
+        return calculator;
+    }
+
+    private AtomicReferenceArray<IAverageCalculator> chunkFor(int chunkIndex) {
+        AtomicReferenceArray<IAverageCalculator>[] current = chunks;
+        if (chunkIndex < current.length) {
+            return current[chunkIndex];
+        }
+        return growTo(chunkIndex);
+    }
+
+    private synchronized AtomicReferenceArray<IAverageCalculator> growTo(int chunkIndex) {
+        AtomicReferenceArray<IAverageCalculator>[] current = chunks;
+        if (chunkIndex >= current.length) {
+            current = Arrays.copyOf(current, chunkIndex + 1);
+            for (int i = chunks.length; i < current.length; i++) {
+                current[i] = new AtomicReferenceArray<>(CHUNK_SIZE);
+            }
+            chunks = current;
+        }
+        return current[chunkIndex];
+    }
 }
@@ -0,0 +1,330 @@
+package com.kanevsky.stats.repos;
+
+import com.kanevsky.stats.model.Stats;
+import lombok.Value;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary snapshot of the player and team repos:
+ * <pre>
+ * header  := long magic, int version, long walPosition, int players, int teams
+ * records := (players + teams) x (8 doubles of totals in {@link Stats} field order, long games)
+ * names   := (players + teams) x (int length, UTF-8 bytes), in id order
+ * dedup   := int length, {@link GameDedupIndex} as written by {@link GameDedupIndex#writeTo}
+ * trailer := int crc32c of everything before it
+ * </pre>
+ * Records are fixed-width and come before all names, so the aggregates are captured in one
+ * sequential pass. The names are immutable and can be written after the capture has ended.
+ * Version 1 snapshots have no dedup section and are still restored.
+ * Restore reads the file through memory-mapped windows.
+ */
+public final class StatsSnapshots {
+
+    static final long MAGIC = 0x53544154534E4150L; // "STATSNAP"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 8 + 4 + 8 + 4 + 4;
+    static final int RECORD_BYTES = (Stats.CATEGORIES + 1) * Long.BYTES;
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private StatsSnapshots() {
+    }
+
+    @Value
+    public static class Summary {
+        long walPosition;
+        int players;
+        int teams;
+        long bytes;
+    }
+
+    /**
+     * Writes a snapshot to {@code file}, through a temporary file moved into place at the end.
+     * {@code afterRecords} runs once the aggregates have been read, before the names are written.
+     */
+    public static Summary write(Path file, long walPosition, IStatsRepo players, IStatsRepo teams,
+                                Runnable afterRecords) throws IOException {
+        return write(file, walPosition, players, teams, new byte[0], afterRecords);
+    }
+
+    /**
+     * {@link #write(Path, long, IStatsRepo, IStatsRepo, Runnable)} that also stores a serialized
+     * {@link GameDedupIndex}.
+     */
+    public static Summary write(Path file, long walPosition, IStatsRepo players, IStatsRepo teams, byte[] dedupIndex,
+                                Runnable afterRecords) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        int playerCount = players.getDictionary().size();
+        int teamCount = teams.getDictionary().size();
+        long bytes;
+
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ChecksummedWriter out = new ChecksummedWriter(channel);
+            out.buffer(HEADER_BYTES).putLong(MAGIC).putInt(VERSION).putLong(walPosition)
+                    .putInt(playerCount).putInt(teamCount);
+
+            try {
+                writeRecords(out, players, playerCount);
+                writeRecords(out, teams, teamCount);
+            } finally {
+                afterRecords.run();
+            }
+            writeNames(out, players.getDictionary(), playerCount);
+            writeNames(out, teams.getDictionary(), teamCount);
+            out.buffer(4).putInt(dedupIndex.length);
+            out.write(dedupIndex);
+            bytes = out.finish();
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new Summary(walPosition, playerCount, teamCount, bytes);
+    }
+
+    /**
+     * Restores a snapshot into empty repos.
+     *
+     * @throws IOException if the file is truncated, corrupt or of another format
+     */
+    public static Summary restore(Path file, IStatsRepo players, IStatsRepo teams) throws IOException {
+        return restore(file, players, teams, null);
+    }
+
+    /**
+     * {@link #restore(Path, IStatsRepo, IStatsRepo)} that also restores the stored
+     * {@link GameDedupIndex} into {@code dedupIndex}, if not null.
+     */
+    public static Summary restore(Path file, IStatsRepo players, IStatsRepo teams, GameDedupIndex dedupIndex)
+            throws IOException {
+        if (players.getDictionary().size() > 0 || teams.getDictionary().size() > 0) {
+            throw new IllegalStateException("Snapshots can only be restored into empty repos");
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 4) {
+                throw new IOException("Snapshot too short: " + file);
+            }
+            verifyChecksum(channel, size, file);
+
+            MappedCursor header = new MappedCursor(channel, 0, size);
+            if (header.getLong() != MAGIC) {
+                throw new IOException("Not a stats snapshot: " + file);
+            }
+            int version = header.getInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            long walPosition = header.getLong();
+            int playerCount = header.getInt();
+            int teamCount = header.getInt();
+
+            MappedCursor records = new MappedCursor(channel, HEADER_BYTES, size);
+            MappedCursor names = new MappedCursor(channel, HEADER_BYTES + (long) (playerCount + teamCount) * RECORD_BYTES, size);
+            restoreRecords(players, playerCount, records, names);
+            restoreRecords(teams, teamCount, records, names);
+            if (version >= 2) {
+                byte[] dedup = names.getBytes();
+                if (dedupIndex != null && dedup.length > 0) {
+                    dedupIndex.readFrom(new DataInputStream(new ByteArrayInputStream(dedup)));
+                }
+            }
+            return new Summary(walPosition, playerCount, teamCount, size);
+        }
+    }
+
+    /**
+     * Reads the write-ahead log position from a snapshot's header.
+     */
+    public static long walPositionOf(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            if (header.position() < HEADER_BYTES || header.getLong(0) != MAGIC) {
+                throw new IOException("Not a stats snapshot: " + file);
+            }
+            return header.getLong(12);
+        }
+    }
+
+    private static void writeRecords(ChecksummedWriter out, IStatsRepo repo, int count) throws IOException {
+        double[] values = new double[Stats.CATEGORIES];
+        for (int id = 0; id < count; id++) {
+            Stats totals = new Stats();
+            long games = repo.addTotalsTo(id, totals);
+            totals.copyTo(values, 0);
+            ByteBuffer record = out.buffer(RECORD_BYTES);
+            for (double value : values) {
+                record.putDouble(value);
+            }
+            record.putLong(games);
+        }
+    }
+
+    private static void writeNames(ChecksummedWriter out, EntityDictionary dictionary, int count) throws IOException {
+        for (int id = 0; id < count; id++) {
+            byte[] name = dictionary.nameOf(id).getBytes(StandardCharsets.UTF_8);
+            out.buffer(4).putInt(name.length);
+            out.write(name);
+        }
+    }
+
+    private static void restoreRecords(IStatsRepo repo, int count, MappedCursor records, MappedCursor names)
+            throws IOException {
+        repo.getDictionary().reserve(count);
+        double[] values = new double[Stats.CATEGORIES];
+        for (int i = 0; i < count; i++) {
+            for (int category = 0; category < values.length; category++) {
+                values[category] = records.getDouble();
+            }
+            long games = records.getLong();
+            int id = repo.register(names.getString());
+            if (games > 0) {
+                repo.merge(id, Stats.fromArray(values, 0), games);
+            }
+        }
+    }
+
+    private static void verifyChecksum(FileChannel channel, long size, Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        long covered = size - 4;
+        for (long offset = 0; offset < covered; offset += MappedCursor.WINDOW_BYTES) {
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(MappedCursor.WINDOW_BYTES, covered - offset)));
+        }
+        ByteBuffer trailer = ByteBuffer.allocate(4);
+        channel.read(trailer, covered);
+        if (trailer.getInt(0) != (int) crc.getValue()) {
+            throw new IOException("Snapshot checksum mismatch: " + file);
+        }
+    }
+
+    // Buffers writes to the channel and checksums every byte written.
+    private static final class ChecksummedWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        private final CRC32C crc = new CRC32C();
+        private long written;
+
+        ChecksummedWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        // Returns the buffer with at least the given number of bytes free.
+        ByteBuffer buffer(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+
+        void write(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                crc.update(bytes);
+                writeFully(ByteBuffer.wrap(bytes));
+                return;
+            }
+            buffer(bytes.length).put(bytes);
+        }
+
+        long finish() throws IOException {
+            flush();
+            buffer.putInt((int) crc.getValue()).flip();
+            writeFully(buffer);
+            return written;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.array(), 0, buffer.limit());
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                written += channel.write(source);
+            }
+        }
+    }
+
+    // Sequential reader over a file region, remapping a window whenever the current one runs out.
+    private static final class MappedCursor {
+        static final long WINDOW_BYTES = 1L << 28;
+
+        private final FileChannel channel;
+        private final long end;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedCursor(FileChannel channel, long start, long end) throws IOException {
+            this.channel = channel;
+            this.end = end;
+            map(start);
+        }
+
+        long getLong() throws IOException {
+            return ensure(Long.BYTES).getLong();
+        }
+
+        int getInt() throws IOException {
+            return ensure(Integer.BYTES).getInt();
+        }
+
+        double getDouble() throws IOException {
+            return ensure(Double.BYTES).getDouble();
+        }
+
+        String getString() throws IOException {
+            return new String(getBytes(), StandardCharsets.UTF_8);
+        }
+
+        byte[] getBytes() throws IOException {
+            int length = getInt();
+            if (length < 0 || length > end - position()) {
+                throw new IOException("Corrupt length " + length + " at offset " + position());
+            }
+            byte[] bytes = new byte[length];
+            int copied = 0;
+            while (copied < length) {
+                ByteBuffer source = ensure(1);
+                int chunk = Math.min(length - copied, source.remaining());
+                source.get(bytes, copied, chunk);
+                copied += chunk;
+            }
+            return bytes;
+        }
+
+        private long position() {
+            return windowStart + window.position();
+        }
+
+        private ByteBuffer ensure(int bytes) throws IOException {
+            if (window.remaining() < bytes) {
+                long position = position();
+                if (end - position < bytes) {
+                    throw new IOException("Snapshot truncated at offset " + position);
+                }
+                map(position);
+            }
+            return window;
+        }
+
+        private void map(long start) throws IOException {
+            windowStart = start;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_BYTES, end - start));
+        }
+    }
+}
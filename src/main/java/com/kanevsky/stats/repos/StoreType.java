@@ -0,0 +1,10 @@
+package com.kanevsky.stats.repos;
+
+public enum StoreType {
+    /** One {@link com.kanevsky.stats.model.IAverageCalculator} object per entity ({@link StatsRepo}). */
+    CALCULATOR,
+    /** Dense per-category primitive columns indexed by entity id ({@link ColumnarStatsRepo}). */
+    COLUMNAR,
+    /** Fixed-width records in direct memory outside the GC-managed heap ({@link OffHeapStatsRepo}). */
+    OFF_HEAP
+}
@@ -0,0 +1,152 @@
+package com.kanevsky.stats.repos;
+
+import com.kanevsky.stats.model.Stats;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Record layout of the write-ahead log:
+ * <pre>
+ * record := int payloadLength, int crc32c(payload), payload
+ * payload := int lineCount, line*
+ * line := int length, player UTF-8, int length, team UTF-8, [int length, game id UTF-8],
+ *         8 doubles in {@link Stats} field order
+ * </pre>
+ * A retracted line stores the complement {@code ~length} of its player name length, so it is
+ * negative. A line with a game id stores the complement of its team name length, followed by the
+ * game id. A rolled-back line, the retraction of a line logged before but then rejected, also stores
+ * the complement of its game id length.
+ * Segments are zero-filled when mapped, so a payload length of 0 marks the end of the written part.
+ */
+final class WalCodec {
+
+    static final int HEADER_BYTES = 8;
+
+    private static final int LINE_FIXED_BYTES = 8 + Stats.CATEGORIES * Double.BYTES;
+
+    private WalCodec() {
+    }
+
+    /**
+     * Encodes the lines that have stats and two non-blank names, the lines ingest would apply, into records of roughly {@code maxRecordBytes} each (a single line
+     * larger than that gets a record of its own). Line {@code i} is marked as retracted if {@code retractions[i]} is
+     * set, and carries {@code gameIds[i]} unless it is null; either array may be null. If
+     * {@code rollback} is set, every line is a rolled-back line.
+     */
+    static List<ByteBuffer> encode(String[] gameIds, String[] playerNames, String[] teamNames, Stats[] stats,
+                                   boolean[] retractions, boolean rollback, int maxRecordBytes) {
+        List<ByteBuffer> records = new ArrayList<>(1);
+        ByteBuffer record = null;
+        int lines = 0;
+        double[] values = new double[Stats.CATEGORIES];
+        for (int i = 0; i < stats.length; i++) {
+            if (stats[i] == null || isBlank(playerNames[i]) || isBlank(teamNames[i])) {
+                continue;
+            }
+            byte[] player = playerNames[i].getBytes(StandardCharsets.UTF_8);
+            byte[] team = teamNames[i].getBytes(StandardCharsets.UTF_8);
+            byte[] game = gameIds == null || gameIds[i] == null ? null : gameIds[i].getBytes(StandardCharsets.UTF_8);
+            int lineBytes = LINE_FIXED_BYTES + player.length + team.length + (game == null ? 0 : 4 + game.length);
+
+            if (record != null && record.remaining() < lineBytes) {
+                records.add(seal(record, lines));
+                record = null;
+            }
+            if (record == null) {
+                record = ByteBuffer.allocate(Math.max(maxRecordBytes, HEADER_BYTES + 4 + lineBytes));
+                record.position(HEADER_BYTES + 4);
+                lines = 0;
+            }
+
+            boolean retraction = rollback || retractions != null && retractions[i];
+            record.putInt(retraction ? ~player.length : player.length).put(player);
+            if (game == null) {
+                record.putInt(team.length).put(team);
+            } else {
+                record.putInt(~team.length).put(team).putInt(rollback ? ~game.length : game.length).put(game);
+            }
+            stats[i].copyTo(values, 0);
+            for (double value : values) {
+                record.putDouble(value);
+            }
+            lines++;
+        }
+        if (record != null) {
+            records.add(seal(record, lines));
+        }
+        return records;
+    }
+
+    private static boolean isBlank(String name) {
+        return name == null || name.trim().isEmpty();
+    }
+
+    private static ByteBuffer seal(ByteBuffer record, int lines) {
+        int payloadLength = record.position() - HEADER_BYTES;
+        record.putInt(HEADER_BYTES, lines);
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), HEADER_BYTES, payloadLength);
+        record.putInt(0, payloadLength).putInt(4, (int) crc.getValue());
+        return record.flip();
+    }
+
+    /**
+     * Receives the decoded lines of a record.
+     */
+    @FunctionalInterface
+    interface LineConsumer {
+        void accept(String gameId, String playerName, String teamName, Stats stats, boolean retraction,
+                    boolean rollback);
+    }
+
+    /**
+     * Decodes the record at the buffer's position and advances past it.
+     *
+     * @return false, leaving the position unchanged, at the end of the written part or at a torn or
+     * corrupt record
+     */
+    static boolean decode(ByteBuffer segment, LineConsumer consumer) {
+        int start = segment.position();
+        if (segment.remaining() < HEADER_BYTES + 4) {
+            return false;
+        }
+        int payloadLength = segment.getInt(start);
+        if (payloadLength < 4 || payloadLength > segment.remaining() - HEADER_BYTES) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(segment.slice(start + HEADER_BYTES, payloadLength));
+        if ((int) crc.getValue() != segment.getInt(start + 4)) {
+            return false;
+        }
+
+        ByteBuffer payload = segment.slice(start + HEADER_BYTES, payloadLength);
+        int lines = payload.getInt();
+        double[] values = new double[Stats.CATEGORIES];
+        for (int line = 0; line < lines; line++) {
+            int playerLength = payload.getInt();
+            boolean retraction = playerLength < 0;
+            String playerName = string(payload, retraction ? ~playerLength : playerLength);
+            int teamLength = payload.getInt();
+            String teamName = string(payload, teamLength < 0 ? ~teamLength : teamLength);
+            int gameLength = teamLength < 0 ? payload.getInt() : 0;
+            String gameId = teamLength < 0 ? string(payload, gameLength < 0 ? ~gameLength : gameLength) : null;
+            for (int category = 0; category < values.length; category++) {
+                values[category] = payload.getDouble();
+            }
+            consumer.accept(gameId, playerName, teamName, Stats.fromArray(values, 0), retraction, gameLength < 0);
+        }
+        segment.position(start + HEADER_BYTES + payloadLength);
+        return true;
+    }
+
+    private static String string(ByteBuffer payload, int length) {
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,13 @@
+package com.kanevsky.stats.repos;
+
+/**
+ * How far the write-ahead log goes before an ingest request is acknowledged.
+ */
+public enum WalDurability {
+    // Written to the mapped file only; survives a process crash but not an OS crash or power loss.
+    NONE,
+    // Forced to disk by a background flusher every flush interval; a power loss loses at most that window.
+    ASYNC,
+    // Forced to disk before each batch is acknowledged; concurrent batches share one fsync (group commit).
+    SYNC
+}
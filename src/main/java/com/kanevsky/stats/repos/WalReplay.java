@@ -0,0 +1,248 @@
+package com.kanevsky.stats.repos;
+
+import com.kanevsky.stats.model.Stats;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays write-ahead log segments into the player and team repos in parallel.
+ * <p>
+ * A quick scan of the record headers cuts each segment into chunks of whole records. Every chunk is
+ * decoded on its own thread into private per-entity totals, which are then merged into the repos in
+ * log order, one {@link IStatsRepo#merge} per entity and chunk. Retracted lines are subtracted, so
+ * a chunk can merge a negative games count. Lines with a game id are marked as seen in the
+ * {@link GameDedupIndex}, also in log order; a retracted line carries the id of its correction,
+ * which is marked with a blank player name, and a rolled-back line lets its game id and player
+ * through again. A segment is replayed up to its
+ * first torn or corrupt record, just as a sequential replay would stop there.
+ */
+@Slf4j
+public final class WalReplay {
+
+    private static final int MIN_CHUNK_BYTES = 1 << 22;
+
+    private WalReplay() {
+    }
+
+    @Value
+    public static class Summary {
+        long fromPosition;
+        long toPosition;
+        int segments;
+        int chunks;
+        long bytes;
+        long lines;
+    }
+
+    /**
+     * Replays the records between log positions {@code from} (a record boundary, such as the position
+     * of a snapshot) and {@code to} found in {@code directory}, decoding on {@code threads} threads.
+     */
+    public static Summary replay(Path directory, long from, long to, int threads, IStatsRepo players,
+                                 IStatsRepo teams) throws IOException {
+        return replay(directory, from, to, threads, players, teams, null);
+    }
+
+    /**
+     * {@link #replay(Path, long, long, int, IStatsRepo, IStatsRepo)} that also rebuilds
+     * {@code dedupIndex}, if not null, from the game ids in the log.
+     */
+    public static Summary replay(Path directory, long from, long to, int threads, IStatsRepo players,
+                                 IStatsRepo teams, GameDedupIndex dedupIndex) throws IOException {
+        return replay(directory, from, to, threads, MIN_CHUNK_BYTES, players, teams, dedupIndex);
+    }
+
+    static Summary replay(Path directory, long from, long to, int threads, int minChunkBytes, IStatsRepo players,
+                          IStatsRepo teams) throws IOException {
+        return replay(directory, from, to, threads, minChunkBytes, players, teams, null);
+    }
+
+    static Summary replay(Path directory, long from, long to, int threads, int minChunkBytes, IStatsRepo players,
+                          IStatsRepo teams, GameDedupIndex dedupIndex) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        int segmentCount = 0;
+        long bytes = 0;
+        if (Files.isDirectory(directory)) {
+            List<Segment> segments = new ArrayList<>();
+            for (Path file : MappedWriteAheadLog.segments(directory)) {
+                long base = MappedWriteAheadLog.baseOf(file);
+                long size = Files.size(file);
+                if (base < to && base + size > from) {
+                    segments.add(Segment.map(file, (int) Math.max(0, from - base), (int) Math.min(size, to - base)));
+                }
+            }
+            long scanned = segments.stream().mapToLong(segment -> segment.end - segment.start).sum();
+            int chunkBytes = (int) Math.max(minChunkBytes, scanned / (threads * 4L));
+            for (Segment segment : segments) {
+                int end = segment.split(chunkBytes, chunks);
+                bytes += end - segment.start;
+            }
+            segmentCount = segments.size();
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "wal-replay-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long lines = 0;
+        try {
+            List<Future<Partial>> partials = new ArrayList<>(chunks.size());
+            for (Chunk chunk : chunks) {
+                partials.add(executor.submit(chunk::decode));
+            }
+
+            Segment torn = null;
+            for (int i = 0; i < chunks.size(); i++) {
+                Chunk chunk = chunks.get(i);
+                if (chunk.segment == torn) {
+                    continue;
+                }
+                Partial partial = partials.get(i).get();
+                partial.mergeInto(players, teams, dedupIndex);
+                lines += partial.lines;
+                if (!partial.complete) {
+                    torn = chunk.segment;
+                    log.warn("Write-ahead log segment {} has a corrupt record at offset {}; replayed up to it",
+                            chunk.segment.file.getFileName(), partial.stoppedAt);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying the write-ahead log", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to replay the write-ahead log", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Summary(from, to, segmentCount, chunks.size(), bytes, lines);
+    }
+
+    private static final class Segment {
+        final Path file;
+        final MappedByteBuffer buffer;
+        final int start;
+        final int end;
+
+        private Segment(Path file, MappedByteBuffer buffer, int start, int end) {
+            this.file = file;
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        // The mapping stays valid after the channel is closed.
+        static Segment map(Path file, int start, int end) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return new Segment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, end), start, end);
+            }
+        }
+
+        // Walks the record headers without checksumming, cutting a chunk whenever one reaches
+        // chunkBytes; returns the end of the written part (decoding verifies each record).
+        int split(int chunkBytes, List<Chunk> chunks) {
+            int position = start;
+            int chunkStart = start;
+            while (end - position >= WalCodec.HEADER_BYTES + 4) {
+                int payloadLength = buffer.getInt(position);
+                if (payloadLength < 4 || payloadLength > end - position - WalCodec.HEADER_BYTES) {
+                    break;
+                }
+                position += WalCodec.HEADER_BYTES + payloadLength;
+                if (position - chunkStart >= chunkBytes) {
+                    chunks.add(new Chunk(this, chunkStart, position));
+                    chunkStart = position;
+                }
+            }
+            if (position > chunkStart) {
+                chunks.add(new Chunk(this, chunkStart, position));
+            }
+            return position;
+        }
+    }
+
+    private record Chunk(Segment segment, int start, int end) {
+
+        Partial decode() {
+            Partial partial = new Partial();
+            ByteBuffer records = segment.buffer.slice(start, end - start);
+            boolean decoded = true;
+            while (decoded && records.hasRemaining()) {
+                decoded = WalCodec.decode(records, partial::add);
+            }
+            partial.complete = !records.hasRemaining();
+            partial.stoppedAt = start + records.position();
+            return partial;
+        }
+    }
+
+    private static final class Partial {
+        final Map<String, Totals> players = new HashMap<>();
+        final Map<String, Totals> teams = new HashMap<>();
+        // Dedup index updates of the lines that carry a game id, in log order.
+        final List<DedupMark> marks = new ArrayList<>();
+        long lines;
+        boolean complete;
+        int stoppedAt;
+
+        void add(String gameId, String playerName, String teamName, Stats stats, boolean retraction,
+                 boolean rollback) {
+            if (gameId != null) {
+                marks.add(new DedupMark(gameId, retraction && !rollback ? "" : playerName, !rollback));
+            }
+            players.computeIfAbsent(playerName, name -> new Totals()).add(stats, retraction);
+            teams.computeIfAbsent(teamName, name -> new Totals()).add(stats, retraction);
+            lines++;
+        }
+
+        void mergeInto(IStatsRepo playerRepo, IStatsRepo teamRepo, GameDedupIndex dedupIndex) {
+            players.forEach((name, totals) -> playerRepo.merge(name, totals.stats, totals.games));
+            teams.forEach((name, totals) -> teamRepo.merge(name, totals.stats, totals.games));
+            if (dedupIndex != null) {
+                for (DedupMark mark : marks) {
+                    if (mark.seen()) {
+                        dedupIndex.markSeen(mark.gameId(), mark.playerName());
+                    } else {
+                        dedupIndex.forget(mark.gameId(), mark.playerName());
+                    }
+                }
+            }
+        }
+    }
+
+    private record DedupMark(String gameId, String playerName, boolean seen) {
+    }
+
+    private static final class Totals {
+        final Stats stats = new Stats();
+        long games;
+
+        void add(Stats gameStats, boolean retraction) {
+            if (retraction) {
+                stats.accumulate(gameStats.negate());
+                games--;
+            } else {
+                stats.accumulate(gameStats);
+                games++;
+            }
+        }
+    }
+}
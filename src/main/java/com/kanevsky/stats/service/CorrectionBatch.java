@@ -0,0 +1,58 @@
+package com.kanevsky.stats.service;
+
+import com.kanevsky.stats.dto.StatsEntryDto;
+import com.kanevsky.stats.model.Stats;
+
+/**
+ * A retracted line followed by its corrected line, if any, laid out as the parallel arrays the
+ * {@link IngestJournal} logs. The retracted line is logged with the correction id in place of its
+ * game id, so that recovery knows which corrections were applied.
+ */
+record CorrectionBatch(String correctionId, String[] gameIds, String[] playerNames, String[] teamNames,
+                       Stats[] stats, boolean[] retractions) {
+
+    static CorrectionBatch of(String correctionId, StatsEntryDto original, Stats originalStats,
+                              StatsEntryDto corrected, Stats correctedStats) {
+        int lines = corrected == null ? 1 : 2;
+        CorrectionBatch batch = new CorrectionBatch(correctionId, new String[lines], new String[lines],
+                new String[lines], new Stats[lines], new boolean[lines]);
+        batch.gameIds[0] = correctionId;
+        batch.playerNames[0] = original.getPlayerName();
+        batch.teamNames[0] = original.getTeamName();
+        batch.stats[0] = originalStats;
+        batch.retractions[0] = true;
+        if (corrected != null) {
+            batch.gameIds[1] = corrected.getGameId();
+            batch.playerNames[1] = corrected.getPlayerName();
+            batch.teamNames[1] = corrected.getTeamName();
+            batch.stats[1] = correctedStats;
+        }
+        return batch;
+    }
+
+    /**
+     * Why the correction cannot be applied whatever the aggregates hold, or null if it can: it has no
+     * id, or a line lacks stats or a name.
+     */
+    CorrectionResult rejection() {
+        if (isBlank(correctionId) || !isComplete(0)) {
+            return CorrectionResult.ORIGINAL_REJECTED;
+        }
+        if (size() > 1 && !isComplete(1)) {
+            return CorrectionResult.CORRECTED_REJECTED;
+        }
+        return null;
+    }
+
+    private boolean isComplete(int line) {
+        return stats[line] != null && !isBlank(playerNames[line]) && !isBlank(teamNames[line]);
+    }
+
+    int size() {
+        return stats.length;
+    }
+
+    private static boolean isBlank(String name) {
+        return name == null || name.trim().isEmpty();
+    }
+}
@@ -0,0 +1,42 @@
+package com.kanevsky.stats.service;
+
+import com.kanevsky.stats.dto.StatsEntryDto;
+
+/**
+ * Outcome of {@link IIngestService#correct}.
+ */
+public enum CorrectionResult {
+    /** Applied, now or before under the same correction id. */
+    APPLIED,
+    /** The original player or team cannot retract the original line. Nothing was changed. */
+    ORIGINAL_NOT_FOUND,
+    /** The correction has no id, or the original line lacks stats or a name. Nothing was changed. */
+    ORIGINAL_REJECTED,
+    /** The corrected line lacks stats or a name. Nothing was changed. */
+    CORRECTED_REJECTED,
+    /** The aggregates could not be brought up to date in time to check the original. Nothing was changed. */
+    BUSY,
+    /** Logged, but not every line reached the aggregates. */
+    NOT_APPLIED;
+
+    /**
+     * Why a correction failed, for the caller. {@code operation} names what was asked for, such as
+     * "retract" or "correct".
+     */
+    public String describe(String operation, StatsEntryDto original, StatsEntryDto corrected) {
+        return switch (this) {
+            case APPLIED -> "Applied";
+            case ORIGINAL_NOT_FOUND -> "Original line not found to " + operation + describeLine(original);
+            case ORIGINAL_REJECTED -> "Original line rejected, a correction id, stats and names are required"
+                    + describeLine(original);
+            case CORRECTED_REJECTED -> "Corrected line rejected, stats and names are required"
+                    + describeLine(corrected);
+            case BUSY -> "Timed out waiting to " + operation + describeLine(original) + ", retry later";
+            case NOT_APPLIED -> "Failed to " + operation + " in full" + describeLine(original);
+        };
+    }
+
+    private static String describeLine(StatsEntryDto entry) {
+        return " for player: " + entry.getPlayerName() + ", team: " + entry.getTeamName();
+    }
+}
@@ -0,0 +1,163 @@
+package com.kanevsky.stats.service;
+
+import com.kanevsky.stats.model.Stats;
+import org.apache.commons.csv.CSVRecord;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resolves which CSV column holds which field, from the header row. Each field has a few common
+ * box-score aliases (e.g. {@code PTS}, {@code MP}); {@code overrides} maps a field to an exact
+ * header name. Player and team columns are required, a missing stat column reads as 0. The game id
+ * column is optional.
+ */
+final class CsvColumns {
+
+    private static final Map<String, List<String>> ALIASES = Map.ofEntries(
+            Map.entry("gameId", List.of("gameid", "game_id", "game")),
+            Map.entry("playerName", List.of("playername", "player_name", "player", "name")),
+            Map.entry("teamName", List.of("teamname", "team_name", "team", "tm")),
+            Map.entry("points", List.of("points", "pts")),
+            Map.entry("rebounds", List.of("rebounds", "reb", "trb")),
+            Map.entry("assists", List.of("assists", "ast")),
+            Map.entry("steals", List.of("steals", "stl")),
+            Map.entry("blocks", List.of("blocks", "blk")),
+            Map.entry("fouls", List.of("fouls", "pf")),
+            Map.entry("turnovers", List.of("turnovers", "tov", "to")),
+            Map.entry("minutesPlayed", List.of("minutesplayed", "minutes_played", "minutes", "min", "mp")));
+
+    private final int game;
+    private final int player;
+    private final int team;
+    private final int points;
+    private final int rebounds;
+    private final int assists;
+    private final int steals;
+    private final int blocks;
+    private final int fouls;
+    private final int turnovers;
+    private final int minutes;
+
+    private CsvColumns(Map<String, Integer> indexes) {
+        game = indexes.getOrDefault("gameId", -1);
+        player = indexes.getOrDefault("playerName", -1);
+        team = indexes.getOrDefault("teamName", -1);
+        points = indexes.getOrDefault("points", -1);
+        rebounds = indexes.getOrDefault("rebounds", -1);
+        assists = indexes.getOrDefault("assists", -1);
+        steals = indexes.getOrDefault("steals", -1);
+        blocks = indexes.getOrDefault("blocks", -1);
+        fouls = indexes.getOrDefault("fouls", -1);
+        turnovers = indexes.getOrDefault("turnovers", -1);
+        minutes = indexes.getOrDefault("minutesPlayed", -1);
+    }
+
+    static CsvColumns resolve(List<String> header, Map<String, String> overrides) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // Spreadsheet exports often start with a UTF-8 byte order mark.
+            String name = i == 0 && header.get(i).startsWith("\uFEFF") ? header.get(i).substring(1) : header.get(i);
+            positions.putIfAbsent(name.trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        Map<String, Integer> indexes = new HashMap<>();
+        ALIASES.forEach((field, aliases) -> {
+            String override = overrides.get(field);
+            List<String> candidates = override != null ? List.of(override.trim().toLowerCase(Locale.ROOT)) : aliases;
+            for (String candidate : candidates) {
+                Integer position = positions.get(candidate);
+                if (position != null) {
+                    indexes.put(field, position);
+                    break;
+                }
+            }
+        });
+
+        if (!indexes.containsKey("playerName") || !indexes.containsKey("teamName")) {
+            throw new IllegalArgumentException("CSV header must have player and team columns: " + header);
+        }
+        return new CsvColumns(indexes);
+    }
+
+    boolean hasGameId() {
+        return game >= 0;
+    }
+
+    String gameId(CSVRecord record) {
+        return game < 0 ? null : text(record, game);
+    }
+
+    String playerName(CSVRecord record) {
+        return text(record, player);
+    }
+
+    String teamName(CSVRecord record) {
+        return text(record, team);
+    }
+
+    /**
+     * Parses and range-checks the stat columns with the same limits as {@code StatsEntryDto}.
+     *
+     * @throws IllegalArgumentException naming the offending column
+     */
+    Stats stats(CSVRecord record) {
+        return new Stats(
+                count(record, points, "points", Integer.MAX_VALUE),
+                count(record, rebounds, "rebounds", Integer.MAX_VALUE),
+                count(record, assists, "assists", Integer.MAX_VALUE),
+                count(record, steals, "steals", Integer.MAX_VALUE),
+                count(record, blocks, "blocks", Integer.MAX_VALUE),
+                count(record, fouls, "fouls", 6),
+                count(record, turnovers, "turnovers", Integer.MAX_VALUE),
+                minutes(record));
+    }
+
+    private static String text(CSVRecord record, int column) {
+        if (column >= record.size()) {
+            return null;
+        }
+        String value = record.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static int count(CSVRecord record, int column, String field, int max) {
+        String value = column < 0 ? null : text(record, column);
+        if (value == null) {
+            return 0;
+        }
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + ": not a whole number: " + value);
+        }
+        if (parsed < 0 || parsed > max) {
+            throw new IllegalArgumentException(field + ": out of range: " + value);
+        }
+        return parsed;
+    }
+
+    // Accepts decimal minutes ("36.5") and box-score clock format ("36:30").
+    private double minutes(CSVRecord record) {
+        String value = minutes < 0 ? null : text(record, minutes);
+        if (value == null) {
+            return 0;
+        }
+        double parsed;
+        try {
+            int colon = value.indexOf(':');
+            parsed = colon < 0
+                    ? Double.parseDouble(value)
+                    : Integer.parseInt(value.substring(0, colon)) + Integer.parseInt(value.substring(colon + 1)) / 60.0;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("minutesPlayed: not a number: " + value);
+        }
+        if (!(parsed >= 0 && parsed <= 48)) {
+            throw new IllegalArgumentException("minutesPlayed: out of range: " + value);
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,282 @@
+package com.kanevsky.stats.service;
+
+import com.google.common.base.Splitter;
+import com.google.common.io.ByteStreams;
+import com.kanevsky.stats.dto.IngestResultDto;
+import com.kanevsky.stats.exceptions.IngestException;
+import com.kanevsky.stats.model.Stats;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Imports box-score CSV archives. Rows are parsed straight into {@link Stats} and applied through
+ * {@link IIngestService#processBatch} in batches of {@code batchSize}, with no DTO in between.
+ * <p>
+ * Files are split at line boundaries into chunks parsed in parallel, so quoted fields spanning
+ * several lines are only supported by {@link #importStream}.
+ */
+@Service
+public class CsvImportService implements ICsvImportService {
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+
+    private static final CSVFormat HEADER_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .setIgnoreEmptyLines(true)
+            .build();
+
+    private static final CSVFormat ROW_FORMAT = CSVFormat.DEFAULT.builder()
+            .setIgnoreEmptyLines(true)
+            .build();
+
+    @Autowired
+    private IIngestService ingestService;
+
+    // Kept below stats.ingest.parallel-threshold so chunk workers don't fork again per batch.
+    @Value("${stats.csv.batch-size:1024}")
+    private int batchSize = 1024;
+
+    // Parallel chunks per file (0 = one per common pool thread).
+    @Value("${stats.csv.parallel-chunks:0}")
+    private int parallelChunks;
+
+    // Chunks smaller than this are not worth parsing on their own thread.
+    @Value("${stats.csv.min-chunk-bytes:1048576}")
+    private long minChunkBytes = 1 << 20;
+
+    // Explicit header names as "field=Header;field=Header", e.g. "points=PTS;minutesPlayed=MP".
+    @Value("${stats.csv.columns:}")
+    private String columnOverrides = "";
+
+    @Override
+    public IngestResultDto importStream(InputStream body) {
+        long start = System.nanoTime();
+        IngestResultDto result = new IngestResultDto();
+        try (CSVParser parser = HEADER_FORMAT.parse(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            importRows(parser, columns(parser.getHeaderNames()), result);
+        } catch (IOException | UncheckedIOException e) {
+            throw new IngestException("Malformed CSV after " + result.getReceived()
+                    + " rows (" + result.getSucceeded() + " applied): " + e.getMessage(), e);
+        }
+        result.recordElapsed(start);
+        return result;
+    }
+
+    @Override
+    public IngestResultDto importFile(Path file) {
+        long start = System.nanoTime();
+        List<IngestResultDto> parts;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            String headerLine = readLine(channel, 0);
+            if (headerLine == null) {
+                throw new IngestException("CSV file has no header row: " + file);
+            }
+            CsvColumns columns;
+            try (CSVParser header = CSVParser.parse(headerLine, ROW_FORMAT)) {
+                columns = columns(header.getRecords().get(0).toList());
+            }
+            long[] bounds = chunkBounds(channel, channel.position(), chunkCount(channel.size()));
+            parts = IntStream.range(0, bounds.length - 1)
+                    .parallel()
+                    .mapToObj(chunk -> importChunk(file, bounds[chunk], bounds[chunk + 1], columns))
+                    .toList();
+        } catch (IOException | UncheckedIOException e) {
+            throw new IngestException("Failed reading CSV file " + file + ": " + e.getMessage(), e);
+        }
+
+        IngestResultDto result = combine(parts);
+        result.recordElapsed(start);
+        return result;
+    }
+
+    private IngestResultDto importChunk(Path file, long from, long to, CsvColumns columns) {
+        IngestResultDto result = new IngestResultDto();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(from);
+            InputStream chunk = ByteStreams.limit(Channels.newInputStream(channel), to - from);
+            try (CSVParser parser = ROW_FORMAT.parse(new InputStreamReader(chunk, StandardCharsets.UTF_8))) {
+                importRows(parser, columns, result);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
+
+    private void importRows(CSVParser parser, CsvColumns columns, IngestResultDto result) {
+        Batch batch = new Batch(batchSize, columns.hasGameId());
+        for (CSVRecord record : parser) {
+            long index = result.getReceived();
+            result.setReceived(result.getReceived() + 1);
+
+            String playerName = columns.playerName(record);
+            String teamName = columns.teamName(record);
+            if (playerName == null || teamName == null) {
+                fail(result, index, "Player name and team name are required");
+                continue;
+            }
+            Stats stats;
+            try {
+                stats = columns.stats(record);
+            } catch (IllegalArgumentException e) {
+                fail(result, index, e.getMessage());
+                continue;
+            }
+
+            batch.add(columns.gameId(record), playerName, teamName, stats);
+            if (batch.size == batchSize) {
+                flush(batch, result);
+            }
+        }
+        flush(batch, result);
+    }
+
+    private void flush(Batch batch, IngestResultDto result) {
+        if (batch.size == 0) {
+            return;
+        }
+        // Arrays are only read during processBatch, so full batches are passed without copying.
+        boolean full = batch.size == batch.stats.length;
+        String[] gameIds = batch.gameIds == null || full ? batch.gameIds : Arrays.copyOf(batch.gameIds, batch.size);
+        String[] playerNames = full ? batch.playerNames : Arrays.copyOf(batch.playerNames, batch.size);
+        String[] teamNames = full ? batch.teamNames : Arrays.copyOf(batch.teamNames, batch.size);
+        Stats[] stats = full ? batch.stats : Arrays.copyOf(batch.stats, batch.size);
+        int applied = gameIds == null
+                ? ingestService.processBatch(playerNames, teamNames, stats)
+                : ingestService.processBatch(gameIds, playerNames, teamNames, stats);
+        result.setSucceeded(result.getSucceeded() + applied);
+        result.setFailed(result.getFailed() + batch.size - applied);
+        batch.size = 0;
+    }
+
+    private CsvColumns columns(List<String> header) {
+        Map<String, String> overrides = columnOverrides.isBlank()
+                ? Map.of()
+                : Splitter.on(';').trimResults().omitEmptyStrings().withKeyValueSeparator('=').split(columnOverrides);
+        try {
+            return CsvColumns.resolve(header, overrides);
+        } catch (IllegalArgumentException e) {
+            throw new IngestException(e.getMessage(), e);
+        }
+    }
+
+    private int chunkCount(long size) {
+        int chunks = parallelChunks > 0 ? parallelChunks : ForkJoinPool.getCommonPoolParallelism();
+        return (int) Math.max(1, Math.min(chunks, size / minChunkBytes));
+    }
+
+    /**
+     * Splits {@code [from, size)} into {@code chunks} ranges, moving each inner boundary forward to
+     * just past the next newline so no row is cut in two. Ranges may come out empty.
+     */
+    static long[] chunkBounds(FileChannel channel, long from, int chunks) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[chunks + 1];
+        bounds[0] = from;
+        bounds[chunks] = size;
+        for (int i = 1; i < chunks; i++) {
+            long target = Math.max(bounds[i - 1], from + (size - from) * i / chunks);
+            bounds[i] = target == from ? from : nextLineStart(channel, target);
+        }
+        return bounds;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long offset = position;
+        while (channel.read(buffer.clear(), offset) > 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                offset++;
+                if (buffer.get() == '\n') {
+                    return offset;
+                }
+            }
+        }
+        return channel.size();
+    }
+
+    // Reads the line starting at position and leaves the channel positioned after it.
+    private static String readLine(FileChannel channel, long position) throws IOException {
+        long end = nextLineStart(channel, position);
+        if (end == position) {
+            return null;
+        }
+        ByteBuffer line = ByteBuffer.allocate((int) (end - position));
+        channel.read(line, position);
+        channel.position(end);
+        return new String(line.array(), StandardCharsets.UTF_8).stripTrailing();
+    }
+
+    // Chunk results count rows from 0; shift each chunk's error indexes by the rows before it.
+    private static IngestResultDto combine(List<IngestResultDto> parts) {
+        IngestResultDto result = new IngestResultDto();
+        for (IngestResultDto part : parts) {
+            for (IngestResultDto.EntryError error : part.getErrors()) {
+                if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                    result.getErrors().add(new IngestResultDto.EntryError(
+                            result.getReceived() + error.getIndex(), error.getMessage()));
+                }
+            }
+            result.setReceived(result.getReceived() + part.getReceived());
+            result.setSucceeded(result.getSucceeded() + part.getSucceeded());
+            result.setFailed(result.getFailed() + part.getFailed());
+        }
+        return result;
+    }
+
+    private static void fail(IngestResultDto result, long index, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new IngestResultDto.EntryError(index, message));
+        }
+    }
+
+    private static final class Batch {
+        // Null when the file has no game id column.
+        final String[] gameIds;
+        final String[] playerNames;
+        final String[] teamNames;
+        final Stats[] stats;
+        int size;
+
+        Batch(int capacity, boolean withGameIds) {
+            gameIds = withGameIds ? new String[capacity] : null;
+            playerNames = new String[capacity];
+            teamNames = new String[capacity];
+            stats = new Stats[capacity];
+        }
+
+        void add(String gameId, String playerName, String teamName, Stats entryStats) {
+            if (gameIds != null) {
+                gameIds[size] = gameId;
+            }
+            playerNames[size] = playerName;
+            teamNames[size] = teamName;
+            stats[size] = entryStats;
+            size++;
+        }
+    }
+}
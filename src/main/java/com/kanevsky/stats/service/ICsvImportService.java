@@ -0,0 +1,18 @@
+package com.kanevsky.stats.service;
+
+import com.kanevsky.stats.dto.IngestResultDto;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+
+public interface ICsvImportService {
+    /**
+     * Imports a CSV body with a header row, parsing sequentially as it is read.
+     */
+    IngestResultDto importStream(InputStream body);
+
+    /**
+     * Imports a CSV file with a header row, parsing chunks of the file in parallel.
+     */
+    IngestResultDto importFile(Path file);
+}
@@ -1,6 +1,7 @@
 package com.kanevsky.stats.service;
 
 import com.kanevsky.stats.dto.StatsEntryDto;
+import com.kanevsky.stats.model.Stats;
 
 import java.util.List;
 
@@ -8,4 +9,55 @@ public interface IIngestService {
     boolean processStatsEntry(StatsEntryDto statsEntry);
 
     int processBatchEntries(List<StatsEntryDto> entries);
+
+    /**
+     * Applies one line that the caller has already mapped to {@link Stats}, skipping the DTO layer.
+     */
+    boolean processStats(String playerName, String teamName, Stats stats);
+
+    /**
+     * {@link #processStats(String, String, Stats)} for a line of game {@code gameId}. A line whose game
+     * and player were ingested before is skipped and reported as applied. A null or blank
+     * {@code gameId} turns off deduplication for the line.
+     */
+    boolean processStats(String gameId, String playerName, String teamName, Stats stats);
+
+    /**
+     * Batch form of {@link #processStats}: line {@code i} is {@code stats[i]} for
+     * {@code playerNames[i]} and {@code teamNames[i]}. A null {@code stats[i]} counts as a failed line.
+     *
+     * @return the number of lines applied
+     */
+    int processBatch(String[] playerNames, String[] teamNames, Stats[] stats);
+
+    /**
+     * {@link #processBatch(String[], String[], Stats[])} with game ids, deduplicated as in
+     * {@link #processStats(String, String, String, Stats)}. {@code gameIds} may be null.
+     */
+    int processBatch(String[] gameIds, String[] playerNames, String[] teamNames, Stats[] stats);
+
+    /**
+     * Subtracts {@code original}, a line ingested before, from its player and team, and if
+     * {@code corrected} is not null ingests that line in its place, even if its game and player
+     * were ingested before. Both are logged as one batch. A correction whose {@code correctionId}
+     * was applied before is not applied again and reports success.
+     *
+     * @return {@link CorrectionResult#ORIGINAL_NOT_FOUND}, changing nothing, unless the original player
+     * and team both {@link com.kanevsky.stats.repos.IStatsManager#canRetract can retract} {@code original}
+     */
+    CorrectionResult correct(String correctionId, StatsEntryDto original, StatsEntryDto corrected);
+
+    /**
+     * {@link #correct} without a corrected line.
+     */
+    default CorrectionResult retract(String correctionId, StatsEntryDto original) {
+        return correct(correctionId, original, null);
+    }
+
+    /**
+     * Returns once every line accepted so far has reached the aggregates. Only engines that apply
+     * asynchronously need to wait.
+     */
+    default void awaitApplied() {
+    }
 }
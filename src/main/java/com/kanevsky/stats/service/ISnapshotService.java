@@ -0,0 +1,19 @@
+package com.kanevsky.stats.service;
+
+import com.kanevsky.stats.dto.SnapshotDto;
+
+import java.io.IOException;
+
+public interface ISnapshotService {
+    /**
+     * Writes a snapshot of the player and team aggregates and prunes old snapshots.
+     */
+    SnapshotDto takeSnapshot();
+
+    /**
+     * Restores the newest readable snapshot into the empty repos.
+     *
+     * @return the write-ahead log position the snapshot is exact at, or 0 if there was none
+     */
+    long restoreLatest() throws IOException;
+}
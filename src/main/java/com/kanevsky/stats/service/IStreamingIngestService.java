@@ -0,0 +1,20 @@
+package com.kanevsky.stats.service;
+
+import com.kanevsky.stats.dto.IngestResultDto;
+
+import java.io.InputStream;
+
+public interface IStreamingIngestService {
+
+    /**
+     * Reads a {@code {"entries": [...]}} document entry by entry, validating and applying entries in
+     * bounded chunks while the body is still arriving.
+     */
+    IngestResultDto ingestJson(InputStream body);
+
+    /**
+     * Reads one JSON entry per line. A line that does not parse or validate is reported by its
+     * zero-based line offset and skipped; the rest of the body is still processed.
+     */
+    IngestResultDto ingestNdjson(InputStream body);
+}
@@ -0,0 +1,8 @@
+package com.kanevsky.stats.service;
+
+public enum IngestEngine {
+    // Callers apply entries themselves through the thread-safe calculators.
+    DIRECT,
+    // Callers publish to per-partition ring buffers; one worker per partition applies them.
+    SHARDED
+}
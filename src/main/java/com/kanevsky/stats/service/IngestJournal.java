@@ -0,0 +1,346 @@
+package com.kanevsky.stats.service;
+
+import com.kanevsky.stats.model.Stats;
+import com.kanevsky.stats.repos.GameDedupIndex;
+import com.kanevsky.stats.repos.IWriteAheadLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * Sits between the ingest services and the aggregates: every batch is appended to the write-ahead
+ * log, applied, and committed before the caller is acknowledged. Lines of which {@code apply}
+ * applied nothing are {@link IWriteAheadLog#rollBack rolled back} before the commit, so that a
+ * replay does not count a line the caller was told failed.
+ * <p>
+ * It also lets a snapshot capture the aggregates exactly as of one log position.
+ * {@link #beginCapture} marks the position once batches appended before it have finished applying.
+ * Batches appended while the capture runs are logged, but their writers wait to apply them until
+ * {@link #endCapture}, while the snapshot writes its records. Each writer then applies its own
+ * batch and reports what actually applied, so the ingest services' back-pressure and rollbacks
+ * work as outside a capture. Corrections wait for the capture to end before they are checked.
+ * <p>
+ * Lines that carry a game id are checked against the {@link GameDedupIndex} as they are logged, and
+ * their game id is logged with them so that recovery can rebuild the index. A (game, player) line
+ * seen before is dropped and reported as applied, so a retried batch is a no-op that returns the
+ * same count as the original. A line stays marked as seen only if it applies: the lines
+ * {@code apply} rejects are forgotten as they are rolled back.
+ * <p>
+ * A {@link #correct correction} retracts a line submitted before, logged with a flag so that a
+ * replay subtracts it again, and may ingest a corrected line. Corrections are deduplicated by their
+ * correction id, which is logged in place of the retracted line's game id.
+ */
+@Component
+public class IngestJournal {
+
+    // Player name under which correction ids are kept in the dedup index; ingested names are never blank.
+    static final String CORRECTION = "";
+
+    private final IWriteAheadLog writeAheadLog;
+    private final GameDedupIndex dedupIndex;
+
+    // Appends and applies take the read lock, so a capture (write lock) sees a position no batch
+    // straddles: everything logged before it, rollbacks included, has been applied.
+    private final ReentrantReadWriteLock appendLock = new ReentrantReadWriteLock();
+
+    private final Object captureLock = new Object();
+    // Set from the start of a capture until endCapture; set only under the write lock, so a writer
+    // holding the read lock sees it settled.
+    private volatile boolean capturing;
+    // Writers that released the read lock to wait for the running capture to end.
+    private int waiting;
+
+    public IngestJournal(IWriteAheadLog writeAheadLog) {
+        this(writeAheadLog, new GameDedupIndex());
+    }
+
+    @Autowired
+    public IngestJournal(IWriteAheadLog writeAheadLog, GameDedupIndex dedupIndex) {
+        this.writeAheadLog = writeAheadLog;
+        this.dedupIndex = dedupIndex;
+    }
+
+    /**
+     * Drops the lines whose game id and player were ingested before by setting their stats to null,
+     * then ingests the rest. {@code gameIds} may be null, as may its entries; lines without a game id
+     * are never dropped.
+     *
+     * @return the result of {@link #ingest(String[], String[], Stats[], BatchApply)} plus the number of
+     * dropped lines
+     */
+    public int ingest(String[] gameIds, String[] playerNames, String[] teamNames, Stats[] stats, BatchApply apply) {
+        return log(gameIds, playerNames, teamNames, stats, apply);
+    }
+
+    /**
+     * Logs the batch, runs {@code apply} (once a running capture has ended) and commits.
+     *
+     * @return the result of {@code apply}
+     */
+    public int ingest(String[] playerNames, String[] teamNames, Stats[] stats, BatchApply apply) {
+        return log(null, playerNames, teamNames, stats, apply);
+    }
+
+    /**
+     * Logs and applies a correction, unless one with the same id was logged before. {@code check}
+     * runs once the id is claimed, before anything is logged, and rejects the correction if it fails.
+     * The corrected line is applied even if its game and player were seen before, and is marked as
+     * seen. The id stays claimed once the correction is logged, as a replay applies it in full.
+     * <p>
+     * A correction waits for a running capture to end, then checks and applies while the caller
+     * holds its locks, so the check still holds when the correction is applied.
+     *
+     * @return {@link CorrectionResult#ORIGINAL_NOT_FOUND} if {@code check} fails, and otherwise
+     * whether every line was applied, now or before
+     */
+    public CorrectionResult correct(CorrectionBatch batch, BooleanSupplier check, IntSupplier apply) {
+        long position;
+        int applied;
+        appendLock.readLock().lock();
+        try {
+            awaitCaptureEnd();
+            if (!dedupIndex.firstSeen(batch.correctionId(), CORRECTION)) {
+                return CorrectionResult.APPLIED;
+            }
+            if (!check.getAsBoolean()) {
+                dedupIndex.forget(batch.correctionId(), CORRECTION);
+                return CorrectionResult.ORIGINAL_NOT_FOUND;
+            }
+            try {
+                position = writeAheadLog.append(batch.gameIds(), batch.playerNames(), batch.teamNames(),
+                        batch.stats(), batch.retractions());
+            } catch (RuntimeException e) {
+                dedupIndex.forget(batch.correctionId(), CORRECTION);
+                throw e;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                if (!batch.retractions()[i] && !isBlank(batch.gameIds()[i])) {
+                    dedupIndex.markSeen(batch.gameIds()[i], batch.playerNames()[i]);
+                }
+            }
+            applied = apply.getAsInt();
+        } finally {
+            appendLock.readLock().unlock();
+        }
+
+        writeAheadLog.commit(position);
+        return applied == batch.size() ? CorrectionResult.APPLIED : CorrectionResult.NOT_APPLIED;
+    }
+
+    // Called with the read lock held. While a capture runs, releases the read lock until the capture
+    // ends; endCapture returns only once every waiting writer holds the read lock again, so no batch
+    // straddles the next capture. The wait is not interruptible, as the batch may already be logged.
+    private void awaitCaptureEnd() {
+        synchronized (captureLock) {
+            if (!capturing) {
+                return;
+            }
+            waiting++;
+        }
+        appendLock.readLock().unlock();
+        boolean interrupted = false;
+        try {
+            synchronized (captureLock) {
+                while (capturing) {
+                    try {
+                        captureLock.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+        } finally {
+            appendLock.readLock().lock();
+            synchronized (captureLock) {
+                waiting--;
+                captureLock.notifyAll();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int log(String[] gameIds, String[] playerNames, String[] teamNames, Stats[] stats, BatchApply apply) {
+        long position;
+        int duplicates;
+        int applied;
+        appendLock.readLock().lock();
+        try {
+            // Claimed under the lock, so a capture's copy of the index matches the log position.
+            duplicates = gameIds == null ? 0 : dropDuplicates(gameIds, playerNames, teamNames, stats);
+            if (duplicates == stats.length) {
+                return duplicates;
+            }
+            try {
+                position = gameIds == null
+                        ? writeAheadLog.append(playerNames, teamNames, stats)
+                        : writeAheadLog.append(gameIds, playerNames, teamNames, stats, null);
+            } catch (RuntimeException e) {
+                if (gameIds != null) {
+                    forgetClaimed(gameIds, playerNames, teamNames, stats);
+                }
+                throw e;
+            }
+            awaitCaptureEnd();
+            applied = applyLogged(gameIds, playerNames, teamNames, stats, apply);
+        } finally {
+            appendLock.readLock().unlock();
+        }
+
+        writeAheadLog.commit(position);
+        return duplicates + applied;
+    }
+
+    // Runs apply, then rolls the lines it rejected back out of the log and the dedup index.
+    private int applyLogged(String[] gameIds, String[] playerNames, String[] teamNames, Stats[] stats,
+                            BatchApply apply) {
+        boolean[] rejected = new boolean[stats.length];
+        int applied = apply.apply(rejected);
+
+        int count = 0;
+        for (int i = 0; i < stats.length; i++) {
+            if (rejected[i] && isApplicable(i, playerNames, teamNames, stats)) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return applied;
+        }
+        String[] rolledBackGameIds = new String[count];
+        String[] rolledBackPlayers = new String[count];
+        String[] rolledBackTeams = new String[count];
+        Stats[] rolledBackStats = new Stats[count];
+        int line = 0;
+        for (int i = 0; i < stats.length; i++) {
+            if (rejected[i] && isApplicable(i, playerNames, teamNames, stats)) {
+                rolledBackGameIds[line] = gameIds == null ? null : gameIds[i];
+                rolledBackPlayers[line] = playerNames[i];
+                rolledBackTeams[line] = teamNames[i];
+                rolledBackStats[line] = stats[i];
+                line++;
+                if (gameIds != null && isDeduplicated(i, gameIds, playerNames, teamNames, stats)) {
+                    dedupIndex.forget(gameIds[i], playerNames[i]);
+                }
+            }
+        }
+        writeAheadLog.commit(writeAheadLog.rollBack(rolledBackGameIds, rolledBackPlayers, rolledBackTeams,
+                rolledBackStats));
+        return applied;
+    }
+
+    /**
+     * Starts a capture once every batch logged so far is applied, and returns its position. Captures
+     * must not overlap.
+     */
+    public long beginCapture() {
+        appendLock.writeLock().lock();
+        try {
+            synchronized (captureLock) {
+                if (capturing) {
+                    throw new IllegalStateException("A capture is already running");
+                }
+                capturing = true;
+            }
+            return writeAheadLog.position();
+        } finally {
+            appendLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Serializes the {@link GameDedupIndex} for a snapshot. Called during a capture, after the batches
+     * logged before it have been applied, so lines they failed to apply are no longer marked. Batches
+     * logged since the capture began may be marked too; replaying the log marks them anyway.
+     */
+    public byte[] captureDedupIndex() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        appendLock.writeLock().lock();
+        try {
+            dedupIndex.writeTo(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.writeLock().unlock();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Ends the capture, if one is running, and lets the writers waiting on it apply their batches.
+     * Returns once they have all resumed, so the next capture waits for them to finish.
+     */
+    public void endCapture() {
+        boolean interrupted = false;
+        synchronized (captureLock) {
+            capturing = false;
+            captureLock.notifyAll();
+            while (waiting > 0) {
+                try {
+                    captureLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int dropDuplicates(String[] gameIds, String[] playerNames, String[] teamNames, Stats[] stats) {
+        int duplicates = 0;
+        for (int i = 0; i < stats.length; i++) {
+            if (isDeduplicated(i, gameIds, playerNames, teamNames, stats)
+                    && !dedupIndex.firstSeen(gameIds[i], playerNames[i])) {
+                stats[i] = null;
+                duplicates++;
+            }
+        }
+        return duplicates;
+    }
+
+    // Duplicates have null stats by now, so this only releases the lines claimed by this batch.
+    private void forgetClaimed(String[] gameIds, String[] playerNames, String[] teamNames, Stats[] stats) {
+        for (int i = 0; i < stats.length; i++) {
+            if (isDeduplicated(i, gameIds, playerNames, teamNames, stats)) {
+                dedupIndex.forget(gameIds[i], playerNames[i]);
+            }
+        }
+    }
+
+    private static boolean isDeduplicated(int i, String[] gameIds, String[] playerNames, String[] teamNames,
+                                          Stats[] stats) {
+        return stats[i] != null && !isBlank(gameIds[i]) && !isBlank(playerNames[i]) && !isBlank(teamNames[i]);
+    }
+
+    private static boolean isApplicable(int i, String[] playerNames, String[] teamNames, Stats[] stats) {
+        return stats[i] != null && !isBlank(playerNames[i]) && !isBlank(teamNames[i]);
+    }
+
+    private static boolean isBlank(String name) {
+        return name == null || name.trim().isEmpty();
+    }
+
+    /**
+     * Applies a logged batch.
+     */
+    @FunctionalInterface
+    public interface BatchApply {
+
+        /**
+         * Applies the lines that have stats and both names, setting {@code rejected[i]} for every
+         * line of which nothing was applied.
+         *
+         * @return the number of lines applied in full
+         */
+        int apply(boolean[] rejected);
+    }
+}
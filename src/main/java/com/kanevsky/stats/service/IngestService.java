@@ -2,18 +2,33 @@ package com.kanevsky.stats.service;
 
 import com.kanevsky.stats.dto.StatsEntryDto;
 import com.kanevsky.stats.mappers.IStatsMapper;
+import com.kanevsky.stats.model.IStatsKernel;
+import com.kanevsky.stats.model.PackedLines;
 import com.kanevsky.stats.model.Stats;
+import com.kanevsky.stats.model.StatsKernels;
 import com.kanevsky.stats.repos.IStatsManager;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static com.kanevsky.stats.service.KeyPartitioner.partitionOf;
 
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "stats.ingest.engine", havingValue = "DIRECT", matchIfMissing = true)
 public class IngestService implements IIngestService {
 
     @Autowired
@@ -27,15 +42,28 @@ public class IngestService implements IIngestService {
     @Qualifier("teamStatsManager")
     private IStatsManager teamStatsManager;
 
+    @Autowired
+    private IngestJournal journal;
+
+    // Batches with at least this many entries are mapped and applied on the common ForkJoin pool
+    // (0 disables parallel processing).
+    @Value("${stats.ingest.parallel-threshold:2048}")
+    private int parallelThreshold;
+
+    // Key partitions per parallel batch (0 = four per common pool thread).
+    @Value("${stats.ingest.parallel-partitions:0}")
+    private int parallelPartitions;
+
+    private final IStatsKernel kernel = StatsKernels.best();
+
+    // Serializes corrections, so two retractions of a key's last game cannot both pass the check.
+    private final Object correctionLock = new Object();
+
     @Override
     public boolean processStatsEntry(StatsEntryDto statsEntry) {
         try {
             Stats stats = statsMapper.toStats(statsEntry.getStats());
-            
-            boolean playerSuccess = playerStatsManager.submit(stats, statsEntry.getPlayerName());
-            boolean teamSuccess = teamStatsManager.submit(stats, statsEntry.getTeamName());
-            
-            return playerSuccess && teamSuccess;
+            return processStats(statsEntry.getGameId(), statsEntry.getPlayerName(), statsEntry.getTeamName(), stats);
         } catch (Exception e) {
             log.error("Error processing stats entry for player: {}, team: {}", 
                     statsEntry.getPlayerName(), statsEntry.getTeamName(), e);
@@ -43,20 +71,193 @@ public class IngestService implements IIngestService {
         }
     }
 
+    @Override
+    public boolean processStats(String playerName, String teamName, Stats stats) {
+        return processStats(null, playerName, teamName, stats);
+    }
+
+    @Override
+    public boolean processStats(String gameId, String playerName, String teamName, Stats stats) {
+        String[] gameIds = gameId == null ? null : new String[]{gameId};
+        return journal.ingest(gameIds, new String[]{playerName}, new String[]{teamName}, new Stats[]{stats}, rejected -> {
+            boolean playerSuccess = playerStatsManager.submit(stats, playerName);
+            boolean teamSuccess = teamStatsManager.submit(stats, teamName);
+            // A line that left no trace must be accepted when the feeder retries it.
+            rejected[0] = !playerSuccess && !teamSuccess;
+            return playerSuccess && teamSuccess ? 1 : 0;
+        }) == 1;
+    }
+
     @Override
     public int processBatchEntries(List<StatsEntryDto> entries) {
         if (entries == null || entries.isEmpty()) {
             return 0;
         }
 
-        AtomicInteger successCount = new AtomicInteger(0);
-        
-        entries.forEach(entry -> {
-            if (processStatsEntry(entry)) {
-                successCount.incrementAndGet();
+        StatsEntryDto[] batch = entries.toArray(new StatsEntryDto[0]);
+        String[] gameIds = new String[batch.length];
+        String[] playerNames = new String[batch.length];
+        String[] teamNames = new String[batch.length];
+        Stats[] mappedStats = new Stats[batch.length];
+        indexes(batch.length, isParallel(batch.length)).forEach(i -> {
+            gameIds[i] = batch[i].getGameId();
+            playerNames[i] = batch[i].getPlayerName();
+            teamNames[i] = batch[i].getTeamName();
+            mappedStats[i] = toStats(batch[i]);
+        });
+
+        return processBatch(gameIds, playerNames, teamNames, mappedStats);
+    }
+
+    @Override
+    public int processBatch(String[] playerNames, String[] teamNames, Stats[] stats) {
+        return processBatch(null, playerNames, teamNames, stats);
+    }
+
+    @Override
+    public int processBatch(String[] gameIds, String[] playerNames, String[] teamNames, Stats[] stats) {
+        if (playerNames.length != stats.length || teamNames.length != stats.length
+                || gameIds != null && gameIds.length != stats.length) {
+            throw new IllegalArgumentException("Names and stats must have the same length");
+        }
+        return journal.ingest(gameIds, playerNames, teamNames, stats, rejected -> applyBatch(playerNames, teamNames, stats, rejected));
+    }
+
+    @Override
+    public CorrectionResult correct(String correctionId, StatsEntryDto original, StatsEntryDto corrected) {
+        CorrectionBatch batch = CorrectionBatch.of(correctionId, original, toStats(original), corrected,
+                corrected == null ? null : toStats(corrected));
+        CorrectionResult rejection = batch.rejection();
+        if (rejection != null) {
+            return rejection;
+        }
+
+        synchronized (correctionLock) {
+            return journal.correct(batch,
+                    () -> playerStatsManager.canRetract(batch.stats()[0], original.getPlayerName())
+                            && teamStatsManager.canRetract(batch.stats()[0], original.getTeamName()),
+                    () -> applyCorrection(batch));
+        }
+    }
+
+    private int applyCorrection(CorrectionBatch batch) {
+        int applied = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Stats stats = batch.stats()[i];
+            boolean playerSuccess = batch.retractions()[i]
+                    ? playerStatsManager.retract(stats, batch.playerNames()[i])
+                    : playerStatsManager.submit(stats, batch.playerNames()[i]);
+            boolean teamSuccess = batch.retractions()[i]
+                    ? teamStatsManager.retract(stats, batch.teamNames()[i])
+                    : teamStatsManager.submit(stats, batch.teamNames()[i]);
+            if (playerSuccess && teamSuccess) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    private int applyBatch(String[] playerNames, String[] teamNames, Stats[] stats, boolean[] rejected) {
+        boolean parallel = isParallel(stats.length);
+
+        // Fold the batch per key first, so each distinct player and team is updated once
+        // however many lines of the batch it appears in. Keys are split into partitions by hash,
+        // so partitions processed in parallel never touch the same key; each partition only
+        // walks the lines bucketed to it.
+        int partitions = parallel ? parallelPartitions() : 1;
+        int[][] playerBuckets = bucketByPartition(playerNames, stats, partitions);
+        int[][] teamBuckets = bucketByPartition(teamNames, stats, partitions);
+        Set<String> failedPlayers = Collections.synchronizedSet(new HashSet<>());
+        Set<String> failedTeams = Collections.synchronizedSet(new HashSet<>());
+        indexes(partitions, parallel).forEach(partition -> {
+            failedPlayers.addAll(applyGroups(group(playerBuckets[partition], playerNames, stats), playerStatsManager));
+            failedTeams.addAll(applyGroups(group(teamBuckets[partition], teamNames, stats), teamStatsManager));
+        });
+
+        int successCount = 0;
+        for (int i = 0; i < stats.length; i++) {
+            if (stats[i] == null) {
+                continue;
+            }
+            boolean playerFailed = failedPlayers.contains(playerNames[i]);
+            boolean teamFailed = failedTeams.contains(teamNames[i]);
+            if (!playerFailed && !teamFailed) {
+                successCount++;
+            } else {
+                rejected[i] = playerFailed && teamFailed;
+            }
+        }
+
+        return successCount;
+    }
+
+    private Stats toStats(StatsEntryDto entry) {
+        try {
+            return Objects.requireNonNull(statsMapper.toStats(entry.getStats()), "Stats cannot be null");
+        } catch (Exception e) {
+            log.error("Error processing stats entry for player: {}, team: {}",
+                    entry.getPlayerName(), entry.getTeamName(), e);
+            return null;
+        }
+    }
+
+    private boolean isParallel(int lines) {
+        return parallelThreshold > 0 && lines >= parallelThreshold;
+    }
+
+    private int parallelPartitions() {
+        return parallelPartitions > 0 ? parallelPartitions : 4 * ForkJoinPool.getCommonPoolParallelism();
+    }
+
+    private static IntStream indexes(int count, boolean parallel) {
+        IntStream indexes = IntStream.range(0, count);
+        return parallel ? indexes.parallel() : indexes;
+    }
+
+    /**
+     * The indices of the lines with stats, bucketed by the partition of their name, in line order.
+     */
+    private static int[][] bucketByPartition(String[] names, Stats[] stats, int partitions) {
+        int[] partitionOfLine = new int[stats.length];
+        int[] sizes = new int[partitions];
+        for (int i = 0; i < stats.length; i++) {
+            if (stats[i] != null) {
+                partitionOfLine[i] = partitionOf(names[i], partitions);
+                sizes[partitionOfLine[i]]++;
+            }
+        }
+        int[][] buckets = new int[partitions][];
+        for (int partition = 0; partition < partitions; partition++) {
+            buckets[partition] = new int[sizes[partition]];
+            sizes[partition] = 0;
+        }
+        for (int i = 0; i < stats.length; i++) {
+            if (stats[i] != null) {
+                int partition = partitionOfLine[i];
+                buckets[partition][sizes[partition]++] = i;
+            }
+        }
+        return buckets;
+    }
+
+    private static Map<String, PackedLines> group(int[] lines, String[] names, Stats[] stats) {
+        Map<String, PackedLines> groups = new HashMap<>();
+        for (int i : lines) {
+            groups.computeIfAbsent(names[i], name -> new PackedLines()).add(stats[i]);
+        }
+        return groups;
+    }
+
+    private Set<String> applyGroups(Map<String, PackedLines> groups, IStatsManager statsManager) {
+        Set<String> failed = new HashSet<>();
+        groups.forEach((name, lines) -> {
+            boolean applied = lines.count() == 1
+                    ? statsManager.submit(lines.first(), name)
+                    : statsManager.merge(lines.fold(kernel), lines.count(), name);
+            if (!applied) {
+                failed.add(name);
             }
         });
-        
-        return successCount.get();
+        return failed;
     }
-}
\ No newline at end of file
+}
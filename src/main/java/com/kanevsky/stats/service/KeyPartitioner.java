@@ -0,0 +1,15 @@
+package com.kanevsky.stats.service;
+
+final class KeyPartitioner {
+
+    private KeyPartitioner() {
+    }
+
+    static int partitionOf(String name, int partitions) {
+        if (partitions == 1 || name == null) {
+            return 0;
+        }
+        int hash = name.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitions);
+    }
+}
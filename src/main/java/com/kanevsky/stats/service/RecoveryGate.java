@@ -0,0 +1,53 @@
+package com.kanevsky.stats.service;
+
+import com.kanevsky.stats.dto.RecoveryDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the endpoints back until startup recovery has finished.
+ */
+@Component
+public class RecoveryGate {
+
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private volatile RecoveryDto status = new RecoveryDto();
+
+    // How long a request waits for recovery before it is turned away.
+    @Value("${stats.recovery.await-timeout-ms:30000}")
+    private long awaitTimeoutMillis = 30_000;
+
+    public void finish(RecoveryDto status) {
+        this.status = status;
+        finished.countDown();
+    }
+
+    public RecoveryDto getStatus() {
+        return status;
+    }
+
+    public boolean isReady() {
+        return status.getState() == RecoveryState.READY;
+    }
+
+    /**
+     * Waits up to the configured timeout for recovery to finish.
+     *
+     * @return whether it finished successfully
+     */
+    public boolean awaitReady() {
+        return awaitReady(awaitTimeoutMillis);
+    }
+
+    public boolean awaitReady(long timeoutMillis) {
+        try {
+            finished.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return isReady();
+    }
+}
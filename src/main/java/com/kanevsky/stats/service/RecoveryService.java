@@ -0,0 +1,104 @@
+package com.kanevsky.stats.service;
+
+import com.kanevsky.stats.dto.RecoveryDto;
+import com.kanevsky.stats.repos.GameDedupIndex;
+import com.kanevsky.stats.repos.IStatsRepo;
+import com.kanevsky.stats.repos.IWriteAheadLog;
+import com.kanevsky.stats.repos.WalReplay;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+
+/**
+ * Rebuilds the aggregates and the {@link GameDedupIndex} at startup on a background thread: restores
+ * the latest snapshot (when snapshots are enabled), then replays the write-ahead log written since
+ * it (when the log is enabled) in parallel. The {@link RecoveryGate} opens once both are done.
+ */
+@Slf4j
+@Service
+public class RecoveryService {
+
+    @Autowired
+    @Qualifier("playerStatsRepo")
+    private IStatsRepo playerStatsRepo;
+
+    @Autowired
+    @Qualifier("teamStatsRepo")
+    private IStatsRepo teamStatsRepo;
+
+    @Autowired
+    private GameDedupIndex gameDedupIndex;
+
+    @Autowired(required = false)
+    private ISnapshotService snapshotService;
+
+    @Autowired
+    private IWriteAheadLog writeAheadLog;
+
+    @Autowired
+    private RecoveryGate gate;
+
+    @Value("${stats.wal.enabled:false}")
+    private boolean walEnabled;
+
+    @Value("${stats.wal.dir:data/wal}")
+    private Path walDirectory;
+
+    // Replay threads (0 = one per available processor).
+    @Value("${stats.recovery.threads:0}")
+    private int threads;
+
+    @PostConstruct
+    public void start() {
+        // Nothing is ingested before the gate opens, so this is where the log of this process begins.
+        long walPosition = writeAheadLog.position();
+        Thread thread = new Thread(() -> gate.finish(recover(walPosition)), "stats-recovery");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    RecoveryDto recover(long walPosition) {
+        RecoveryDto status = new RecoveryDto();
+        status.setWalPosition(walPosition);
+        status.setThreads(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        long start = System.nanoTime();
+        try {
+            if (snapshotService != null) {
+                status.setSnapshotPosition(snapshotService.restoreLatest());
+            }
+            long replayStart = System.nanoTime();
+            status.setSnapshotMillis((replayStart - start) / 1_000_000);
+
+            if (walEnabled) {
+                WalReplay.Summary summary = WalReplay.replay(walDirectory, status.getSnapshotPosition(), walPosition,
+                        status.getThreads(), playerStatsRepo, teamStatsRepo, gameDedupIndex);
+                long replayNanos = Math.max(1, System.nanoTime() - replayStart);
+                status.setSegments(summary.getSegments());
+                status.setBytes(summary.getBytes());
+                status.setLines(summary.getLines());
+                status.setReplayMillis(replayNanos / 1_000_000);
+                status.setLinesPerSecond(summary.getLines() * 1e9 / replayNanos);
+            }
+            status.setState(RecoveryState.READY);
+        } catch (Exception e) {
+            status.setState(RecoveryState.FAILED);
+            status.setError(e.getMessage());
+            log.error("Recovery failed; the endpoints stay unavailable", e);
+        }
+        status.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+
+        if (status.getState() == RecoveryState.READY) {
+            log.info("Recovered in {} ms: snapshot at position {} in {} ms, then {} lines ({} bytes in {} segments) "
+                            + "replayed on {} threads in {} ms: {} lines/sec",
+                    status.getElapsedMillis(), status.getSnapshotPosition(), status.getSnapshotMillis(),
+                    status.getLines(), status.getBytes(), status.getSegments(), status.getThreads(),
+                    status.getReplayMillis(), Math.round(status.getLinesPerSecond()));
+        }
+        return status;
+    }
+}
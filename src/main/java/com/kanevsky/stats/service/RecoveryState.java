@@ -0,0 +1,9 @@
+package com.kanevsky.stats.service;
+
+public enum RecoveryState {
+    // Restoring the latest snapshot and replaying the write-ahead log; endpoints wait.
+    RECOVERING,
+    READY,
+    // Recovery threw; endpoints stay unavailable rather than serve or snapshot partial aggregates.
+    FAILED
+}
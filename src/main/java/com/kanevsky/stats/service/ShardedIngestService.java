@@ -0,0 +1,283 @@
+package com.kanevsky.stats.service;
+
+import com.kanevsky.stats.dto.PipelineMetricsDto;
+import com.kanevsky.stats.dto.StatsEntryDto;
+import com.kanevsky.stats.mappers.IStatsMapper;
+import com.kanevsky.stats.model.Stats;
+import com.kanevsky.stats.repos.IStatsManager;
+import com.kanevsky.stats.service.pipeline.IngestShard;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.kanevsky.stats.service.KeyPartitioner.partitionOf;
+
+/**
+ * Ingest engine in which every player and team key is owned by exactly one shard worker. Callers
+ * map the entry and publish it to the ring buffers of the shards owning its player and its team;
+ * the workers apply updates to single-writer calculators, so aggregation takes no locks and
+ * contends on no CAS.
+ * <p>
+ * An entry counts as processed once both updates are queued; they are queued together or not at
+ * all, so a rejected entry leaves nothing behind. An update that fails later in the worker is
+ * logged and counted in the shard metrics.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "stats.ingest.engine", havingValue = "SHARDED")
+public class ShardedIngestService implements IIngestService {
+
+    @Autowired
+    private IStatsMapper statsMapper;
+
+    @Autowired
+    @Qualifier("playerStatsManager")
+    private IStatsManager playerStatsManager;
+
+    @Autowired
+    @Qualifier("teamStatsManager")
+    private IStatsManager teamStatsManager;
+
+    @Autowired
+    private IngestJournal journal;
+
+    // Worker threads, each owning a hash partition of the keys (0 = one per available processor).
+    @Value("${stats.ingest.shards:0}")
+    private int shardCount;
+
+    // Slots per shard ring buffer, rounded up to a power of two.
+    @Value("${stats.ingest.ring-capacity:8192}")
+    private int ringCapacity;
+
+    // How long a publisher waits on a full ring buffer before the entry is rejected.
+    @Value("${stats.ingest.publish-timeout-ms:1000}")
+    private long publishTimeoutMillis;
+
+    private IngestShard[] shards;
+
+    // Serializes corrections, so two retractions of a key's last game cannot both pass the check.
+    private final Object correctionLock = new Object();
+
+    @PostConstruct
+    public void start() {
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        shards = new IngestShard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new IngestShard(i, ringCapacity);
+            shards[i].start();
+        }
+        log.info("Started sharded ingest with {} shards of {} slots", count, shards[0].capacity());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (IngestShard shard : shards) {
+            shard.stop(5, TimeUnit.SECONDS);
+        }
+        log.info("Stopped sharded ingest: {}", getMetrics());
+    }
+
+    @Override
+    public boolean processStatsEntry(StatsEntryDto statsEntry) {
+        try {
+            Stats stats = statsMapper.toStats(statsEntry.getStats());
+            return processStats(statsEntry.getGameId(), statsEntry.getPlayerName(), statsEntry.getTeamName(), stats);
+        } catch (Exception e) {
+            log.error("Error processing stats entry for player: {}, team: {}",
+                    statsEntry.getPlayerName(), statsEntry.getTeamName(), e);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean processStats(String playerName, String teamName, Stats stats) {
+        return processStats(null, playerName, teamName, stats);
+    }
+
+    @Override
+    public boolean processStats(String gameId, String playerName, String teamName, Stats stats) {
+        String[] gameIds = gameId == null ? null : new String[]{gameId};
+        return journal.ingest(gameIds, new String[]{playerName}, new String[]{teamName}, new Stats[]{stats},
+                rejected -> publishOrReject(0, playerName, teamName, stats, rejected) ? 1 : 0) == 1;
+    }
+
+    // Nothing of a rejected line is queued, so it must be accepted when the feeder retries it.
+    private boolean publishOrReject(int line, String playerName, String teamName, Stats stats, boolean[] rejected) {
+        if (publish(playerName, teamName, stats)) {
+            return true;
+        }
+        rejected[line] = true;
+        return false;
+    }
+
+    private boolean publish(String playerName, String teamName, Stats stats) {
+        if (stats == null || isBlank(playerName) || isBlank(teamName)) {
+            return false;
+        }
+
+        return publishAll(updatesFor(playerName, teamName, stats, false));
+    }
+
+    private IngestShard.Update[] updatesFor(String playerName, String teamName, Stats stats, boolean retraction) {
+        return new IngestShard.Update[]{
+                new IngestShard.Update(playerStatsManager, playerName, stats, retraction),
+                new IngestShard.Update(teamStatsManager, teamName, stats, retraction)};
+    }
+
+    // Queues the updates on the shards owning their keys, all of them or none.
+    private boolean publishAll(IngestShard.Update[] updates) {
+        IngestShard[] owners = new IngestShard[updates.length];
+        for (int i = 0; i < updates.length; i++) {
+            owners[i] = shardFor(updates[i].name());
+        }
+        return IngestShard.publishAll(owners, updates, TimeUnit.MILLISECONDS.toNanos(publishTimeoutMillis));
+    }
+
+    @Override
+    public int processBatchEntries(List<StatsEntryDto> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return 0;
+        }
+
+        // Mapped up front so the whole batch goes to the write-ahead log as one append.
+        String[] gameIds = new String[entries.size()];
+        String[] playerNames = new String[entries.size()];
+        String[] teamNames = new String[entries.size()];
+        Stats[] stats = new Stats[entries.size()];
+        for (int i = 0; i < stats.length; i++) {
+            StatsEntryDto entry = entries.get(i);
+            gameIds[i] = entry.getGameId();
+            playerNames[i] = entry.getPlayerName();
+            teamNames[i] = entry.getTeamName();
+            stats[i] = toStats(entry);
+        }
+        return processBatch(gameIds, playerNames, teamNames, stats);
+    }
+
+    @Override
+    public int processBatch(String[] playerNames, String[] teamNames, Stats[] stats) {
+        return processBatch(null, playerNames, teamNames, stats);
+    }
+
+    @Override
+    public int processBatch(String[] gameIds, String[] playerNames, String[] teamNames, Stats[] stats) {
+        if (playerNames.length != stats.length || teamNames.length != stats.length
+                || gameIds != null && gameIds.length != stats.length) {
+            throw new IllegalArgumentException("Names and stats must have the same length");
+        }
+
+        return journal.ingest(gameIds, playerNames, teamNames, stats, rejected -> {
+            int successCount = 0;
+            for (int i = 0; i < stats.length; i++) {
+                if (publishOrReject(i, playerNames[i], teamNames[i], stats[i], rejected)) {
+                    successCount++;
+                }
+            }
+            return successCount;
+        });
+    }
+
+    @Override
+    public CorrectionResult correct(String correctionId, StatsEntryDto original, StatsEntryDto corrected) {
+        CorrectionBatch batch = CorrectionBatch.of(correctionId, original, toStats(original), corrected,
+                corrected == null ? null : toStats(corrected));
+        CorrectionResult rejection = batch.rejection();
+        if (rejection != null) {
+            return rejection;
+        }
+
+        synchronized (correctionLock) {
+            // The game counts are only current once the owning workers have applied what is queued.
+            long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(publishTimeoutMillis);
+            if (!shardFor(original.getPlayerName()).awaitDrained(timeoutNanos, TimeUnit.NANOSECONDS)
+                    || !shardFor(original.getTeamName()).awaitDrained(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                return CorrectionResult.BUSY;
+            }
+
+            return journal.correct(batch,
+                    () -> playerStatsManager.canRetract(batch.stats()[0], original.getPlayerName())
+                            && teamStatsManager.canRetract(batch.stats()[0], original.getTeamName()),
+                    () -> publishAll(updatesFor(batch)) ? batch.size() : 0);
+        }
+    }
+
+    // The player and team halves of every line of the correction, queued as one unit.
+    private IngestShard.Update[] updatesFor(CorrectionBatch batch) {
+        IngestShard.Update[] updates = new IngestShard.Update[2 * batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            IngestShard.Update[] line = updatesFor(batch.playerNames()[i], batch.teamNames()[i], batch.stats()[i],
+                    batch.retractions()[i]);
+            updates[2 * i] = line[0];
+            updates[2 * i + 1] = line[1];
+        }
+        return updates;
+    }
+
+    private Stats toStats(StatsEntryDto entry) {
+        try {
+            return statsMapper.toStats(entry.getStats());
+        } catch (Exception e) {
+            log.error("Error processing stats entry for player: {}, team: {}",
+                    entry.getPlayerName(), entry.getTeamName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Waits until everything published so far has been applied.
+     *
+     * @return false if some shard did not drain within the timeout
+     */
+    public boolean awaitDrained(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (IngestShard shard : shards) {
+            if (!shard.awaitDrained(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void awaitApplied() {
+        if (!awaitDrained(1, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Ingest shards did not drain within a minute");
+        }
+    }
+
+    public PipelineMetricsDto getMetrics() {
+        List<PipelineMetricsDto.Shard> shardMetrics = new ArrayList<>(shards.length);
+        int queueDepth = 0;
+        long applied = 0;
+        long failed = 0;
+        long rejected = 0;
+        for (IngestShard shard : shards) {
+            PipelineMetricsDto.Shard metrics = new PipelineMetricsDto.Shard(shard.index(), shard.queueDepth(),
+                    shard.capacity(), shard.highWaterMark(), shard.applied(), shard.failed(), shard.rejected(),
+                    shard.backpressureWaits());
+            shardMetrics.add(metrics);
+            queueDepth += metrics.getQueueDepth();
+            applied += metrics.getApplied();
+            failed += metrics.getFailed();
+            rejected += metrics.getRejected();
+        }
+        return new PipelineMetricsDto(queueDepth, applied, failed, rejected, shardMetrics);
+    }
+
+    private IngestShard shardFor(String name) {
+        return shards[partitionOf(name, shards.length)];
+    }
+
+    private static boolean isBlank(String name) {
+        return name == null || name.trim().isEmpty();
+    }
+}
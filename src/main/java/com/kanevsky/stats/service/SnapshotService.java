@@ -0,0 +1,200 @@
+package com.kanevsky.stats.service;
+
+import com.kanevsky.stats.dto.SnapshotDto;
+import com.kanevsky.stats.repos.GameDedupIndex;
+import com.kanevsky.stats.repos.IStatsRepo;
+import com.kanevsky.stats.repos.IWriteAheadLog;
+import com.kanevsky.stats.repos.StatsSnapshots;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Takes snapshots of the aggregates periodically, on demand and at shutdown, and restores the
+ * latest one during startup recovery. Snapshots are named after their creation time, so the newest
+ * sorts last. No snapshot is taken before recovery has finished, as it would be missing the replayed
+ * lines yet still allow the log segments holding them to be deleted.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "stats.snapshot.enabled", havingValue = "true")
+public class SnapshotService implements ISnapshotService {
+
+    static final String PREFIX = "snapshot-";
+    static final String SUFFIX = ".snap";
+
+    @Autowired
+    @Qualifier("playerStatsRepo")
+    private IStatsRepo playerStatsRepo;
+
+    @Autowired
+    @Qualifier("teamStatsRepo")
+    private IStatsRepo teamStatsRepo;
+
+    @Autowired
+    private IngestJournal journal;
+
+    @Autowired
+    private GameDedupIndex gameDedupIndex;
+
+    @Autowired
+    private IIngestService ingestService;
+
+    @Autowired
+    private IWriteAheadLog writeAheadLog;
+
+    @Autowired
+    private RecoveryGate recoveryGate;
+
+    @Value("${stats.snapshot.dir:data/snapshots}")
+    private Path directory;
+
+    // 0 disables periodic snapshots.
+    @Value("${stats.snapshot.interval-seconds:300}")
+    private long intervalSeconds;
+
+    @Value("${stats.snapshot.retain:2}")
+    private int retain;
+
+    private ScheduledExecutorService scheduler;
+    private long lastTimestamp;
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+
+        if (intervalSeconds > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "stats-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::takePeriodicSnapshot, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (!recoveryGate.isReady()) {
+            log.warn("Skipping the shutdown snapshot as recovery has not finished");
+            return;
+        }
+        takeSnapshot();
+    }
+
+    @Override
+    public synchronized SnapshotDto takeSnapshot() {
+        if (!recoveryGate.isReady()) {
+            throw new IllegalStateException("Recovery has not finished");
+        }
+        long start = System.nanoTime();
+        lastTimestamp = Math.max(System.currentTimeMillis(), lastTimestamp + 1);
+        Path file = directory.resolve(PREFIX + lastTimestamp + SUFFIX);
+
+        long position = journal.beginCapture();
+        long[] captureEnd = new long[1];
+        StatsSnapshots.Summary summary;
+        try {
+            ingestService.awaitApplied();
+            byte[] dedupIndex = journal.captureDedupIndex();
+            summary = StatsSnapshots.write(file, position, playerStatsRepo, teamStatsRepo, dedupIndex, () -> {
+                journal.endCapture();
+                captureEnd[0] = System.nanoTime();
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot " + file, e);
+        } finally {
+            journal.endCapture();
+        }
+
+        prune();
+        SnapshotDto snapshot = new SnapshotDto(file.toString(), summary.getWalPosition(), summary.getPlayers(),
+                summary.getTeams(), summary.getBytes(), (captureEnd[0] - start) / 1_000_000,
+                (System.nanoTime() - start) / 1_000_000);
+        log.info("Wrote snapshot {}", snapshot);
+        return snapshot;
+    }
+
+    private void takePeriodicSnapshot() {
+        try {
+            takeSnapshot();
+        } catch (RuntimeException e) {
+            log.error("Periodic snapshot failed", e);
+        }
+    }
+
+    // Falls back to older snapshots if the newest fails its checksum; restore checks it before
+    // touching the repos.
+    @Override
+    public synchronized long restoreLatest() throws IOException {
+        List<Path> snapshots = snapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path file = snapshots.get(i);
+            long start = System.nanoTime();
+            try {
+                StatsSnapshots.Summary summary = StatsSnapshots.restore(file, playerStatsRepo, teamStatsRepo,
+                        gameDedupIndex);
+                lastTimestamp = timestampOf(file);
+                log.info("Restored {} players and {} teams from {} in {} ms", summary.getPlayers(), summary.getTeams(),
+                        file, (System.nanoTime() - start) / 1_000_000);
+                return summary.getWalPosition();
+            } catch (IOException e) {
+                if (playerStatsRepo.getDictionary().size() > 0 || teamStatsRepo.getDictionary().size() > 0) {
+                    throw new IllegalStateException("Snapshot " + file + " failed part-way through restore", e);
+                }
+                log.warn("Skipping unreadable snapshot {}: {}", file, e.getMessage());
+            }
+        }
+        return 0;
+    }
+
+    // Keeps the newest snapshots, and the log segments the oldest kept one still needs.
+    private void prune() {
+        try {
+            List<Path> snapshots = snapshots();
+            for (Path file : snapshots.subList(0, Math.max(0, snapshots.size() - retain))) {
+                Files.delete(file);
+            }
+            List<Path> kept = snapshots();
+            if (!kept.isEmpty()) {
+                writeAheadLog.truncateBefore(StatsSnapshots.walPositionOf(kept.get(0)));
+            }
+        } catch (IOException e) {
+            log.warn("Failed to prune snapshots in {}", directory, e);
+        }
+    }
+
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted((a, b) -> Long.compare(timestampOf(a), timestampOf(b)))
+                    .toList();
+        }
+    }
+
+    private static long timestampOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,161 @@
+package com.kanevsky.stats.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.kanevsky.stats.dto.IngestResultDto;
+import com.kanevsky.stats.dto.StatsEntryDto;
+import com.kanevsky.stats.exceptions.IngestException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Ingests request bodies of any size in constant memory: entries are parsed one at a time (with the
+ * Jackson streaming parser, or line by line for NDJSON) and handed to {@link IIngestService#processBatchEntries} in chunks of
+ * at most {@code chunkSize}, so per-key pre-aggregation still applies within each chunk.
+ */
+@Slf4j
+@Service
+public class StreamingIngestService implements IStreamingIngestService {
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    @Autowired
+    private IIngestService ingestService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${stats.ingest.stream-chunk-size:512}")
+    private int chunkSize;
+
+    @Override
+    public IngestResultDto ingestJson(InputStream body) {
+        long start = System.nanoTime();
+        IngestResultDto result = new IngestResultDto();
+        List<StatsEntryDto> chunk = new ArrayList<>(chunkSize);
+
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IngestException("Expected a JSON object with an entries array");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (!"entries".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (value != JsonToken.START_ARRAY) {
+                    throw new IngestException("Expected entries to be an array");
+                }
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    StatsEntryDto entry = parser.readValueAs(StatsEntryDto.class);
+                    int index = result.getReceived();
+                    result.setReceived(index + 1);
+                    accept(entry, index, chunk, result);
+                }
+            }
+        } catch (IOException e) {
+            flush(chunk, result);
+            throw new IngestException("Malformed stats stream after " + result.getReceived()
+                    + " entries (" + result.getSucceeded() + " applied): " + e.getMessage(), e);
+        }
+
+        flush(chunk, result);
+        result.recordElapsed(start);
+        return result;
+    }
+
+    @Override
+    public IngestResultDto ingestNdjson(InputStream body) {
+        long start = System.nanoTime();
+        IngestResultDto result = new IngestResultDto();
+        List<StatsEntryDto> chunk = new ArrayList<>(chunkSize);
+        ObjectReader entryReader = objectMapper.readerFor(StatsEntryDto.class);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            long offset = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine(), offset++) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                result.setReceived(result.getReceived() + 1);
+
+                StatsEntryDto entry;
+                try {
+                    entry = entryReader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    fail(result, offset, "Malformed entry: " + e.getOriginalMessage());
+                    continue;
+                }
+                accept(entry, offset, chunk, result);
+            }
+        } catch (IOException e) {
+            flush(chunk, result);
+            throw new IngestException("Failed reading stats stream after " + result.getReceived()
+                    + " entries (" + result.getSucceeded() + " applied): " + e.getMessage(), e);
+        }
+
+        flush(chunk, result);
+        result.recordElapsed(start);
+        return result;
+    }
+
+    private void accept(StatsEntryDto entry, long index, List<StatsEntryDto> chunk, IngestResultDto result) {
+        if (entry == null) {
+            fail(result, index, "Entry cannot be null");
+            return;
+        }
+
+        Set<ConstraintViolation<StatsEntryDto>> violations = validator.validate(entry);
+        if (!violations.isEmpty()) {
+            fail(result, index, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return;
+        }
+
+        chunk.add(entry);
+        if (chunk.size() >= chunkSize) {
+            flush(chunk, result);
+        }
+    }
+
+    private void flush(List<StatsEntryDto> chunk, IngestResultDto result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        int applied = ingestService.processBatchEntries(chunk);
+        result.setSucceeded(result.getSucceeded() + applied);
+        result.setFailed(result.getFailed() + chunk.size() - applied);
+        chunk.clear();
+    }
+
+    private static void fail(IngestResultDto result, long index, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new IngestResultDto.EntryError(index, message));
+        }
+    }
+}
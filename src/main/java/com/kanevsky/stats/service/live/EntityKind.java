@@ -0,0 +1,6 @@
+package com.kanevsky.stats.service.live;
+
+public enum EntityKind {
+    PLAYER,
+    TEAM
+}
@@ -0,0 +1,22 @@
+package com.kanevsky.stats.service.live;
+
+import com.kanevsky.stats.model.Stats;
+
+/**
+ * Transport end of a subscription. All calls come from the subscription's delivery loop, one at a
+ * time, so implementations need not be thread-safe.
+ */
+public interface IStatsUpdateSink {
+
+    /**
+     * @return false while the transport cannot take another update without buffering it
+     */
+    boolean isReady();
+
+    void send(EntityKind kind, String name, Stats average);
+
+    /**
+     * Ends the stream because the subscription was closed by the server.
+     */
+    void complete();
+}
@@ -0,0 +1,141 @@
+package com.kanevsky.stats.service.live;
+
+import com.kanevsky.stats.model.Stats;
+import com.kanevsky.stats.repos.IStatsManager;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * One subscriber's view of the watched keys. A change only marks its key dirty; the delivery loop
+ * later sends the average current at that moment. However often a key changes while the subscriber
+ * is busy or its transport is not ready, it is sent at most once and never stale, and the pending
+ * work is bounded by the number of watched keys.
+ */
+@Slf4j
+public class StatsSubscription implements AutoCloseable {
+
+    private final Set<String> players;
+    private final Set<String> teams;
+    private final IStatsManager playerStatsManager;
+    private final IStatsManager teamStatsManager;
+    private final IStatsUpdateSink sink;
+    private final Executor executor;
+    private final Consumer<StatsSubscription> onClose;
+
+    private final Set<String> dirtyPlayers = ConcurrentHashMap.newKeySet();
+    private final Set<String> dirtyTeams = ConcurrentHashMap.newKeySet();
+
+    // Drain requests since the loop last caught up; only the caller moving it off zero starts the loop.
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean closed;
+    private boolean completed;
+
+    StatsSubscription(Set<String> players, Set<String> teams, IStatsManager playerStatsManager,
+                      IStatsManager teamStatsManager, IStatsUpdateSink sink, Executor executor,
+                      Consumer<StatsSubscription> onClose) {
+        this.players = players;
+        this.teams = teams;
+        this.playerStatsManager = playerStatsManager;
+        this.teamStatsManager = teamStatsManager;
+        this.sink = sink;
+        this.executor = executor;
+        this.onClose = onClose;
+        dirtyPlayers.addAll(players);
+        dirtyTeams.addAll(teams);
+    }
+
+    public Set<String> players() {
+        return players;
+    }
+
+    public Set<String> teams() {
+        return teams;
+    }
+
+    void markDirty(EntityKind kind, String name) {
+        Set<String> dirty = kind == EntityKind.PLAYER ? dirtyPlayers : dirtyTeams;
+        // Check first: hot keys are usually dirty already, and a read avoids locking the bin.
+        if (!dirty.contains(name) && dirty.add(name)) {
+            signal();
+        }
+    }
+
+    /**
+     * Asks the delivery loop to run; transports call this when they become writable again.
+     */
+    public void signal() {
+        if (pending.getAndIncrement() == 0) {
+            executor.execute(this::drainLoop);
+        }
+    }
+
+    /**
+     * Stops delivery and unregisters the subscription. The sink is completed from the delivery loop.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            onClose.accept(this);
+            signal();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void drainLoop() {
+        int missed = 1;
+        do {
+            try {
+                drain();
+            } catch (Exception e) {
+                log.warn("Closing subscription after delivery failure: {}", e.getMessage());
+                closed = true;
+                onClose.accept(this);
+            }
+            missed = pending.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void drain() {
+        if (closed) {
+            if (!completed) {
+                completed = true;
+                sink.complete();
+            }
+            return;
+        }
+
+        if (drain(EntityKind.PLAYER, dirtyPlayers, playerStatsManager)) {
+            drain(EntityKind.TEAM, dirtyTeams, teamStatsManager);
+        }
+    }
+
+    /**
+     * @return false if the sink stopped being ready; the remaining keys stay dirty until it signals
+     */
+    private boolean drain(EntityKind kind, Set<String> dirty, IStatsManager statsManager) {
+        Iterator<String> keys = dirty.iterator();
+        while (keys.hasNext()) {
+            if (!sink.isReady()) {
+                return false;
+            }
+            String name = keys.next();
+            // Removed before reading, so a change landing after the read marks the key again.
+            keys.remove();
+            Stats average = statsManager.getStats(name);
+            if (average != null) {
+                sink.send(kind, name, average);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,121 @@
+package com.kanevsky.stats.service.live;
+
+import com.kanevsky.stats.repos.IStatsManager;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes change notifications from the stats managers to the subscriptions watching each key.
+ * With no subscriber watching a key, a write costs one lookup in an empty or small map.
+ */
+@Slf4j
+@Component
+public class StatsSubscriptionHub {
+
+    @Autowired
+    @Qualifier("playerStatsManager")
+    private IStatsManager playerStatsManager;
+
+    @Autowired
+    @Qualifier("teamStatsManager")
+    private IStatsManager teamStatsManager;
+
+    // Threads running subscription delivery loops; a loop only runs while it has dirty keys.
+    @Value("${stats.subscriptions.delivery-threads:2}")
+    private int deliveryThreads;
+
+    private final Map<String, Set<StatsSubscription>> playerWatchers = new ConcurrentHashMap<>();
+    private final Map<String, Set<StatsSubscription>> teamWatchers = new ConcurrentHashMap<>();
+    private final Set<StatsSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, deliveryThreads), runnable -> {
+            Thread thread = new Thread(runnable, "stats-subscriptions-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        playerStatsManager.setChangeListener(name -> onChange(EntityKind.PLAYER, name, playerWatchers));
+        teamStatsManager.setChangeListener(name -> onChange(EntityKind.TEAM, name, teamWatchers));
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        playerStatsManager.setChangeListener(null);
+        teamStatsManager.setChangeListener(null);
+        subscriptions.forEach(StatsSubscription::close);
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Starts delivering the averages of the given keys to {@code sink}: their current values
+     * first, then every change, conflated per key.
+     */
+    public StatsSubscription subscribe(Set<String> players, Set<String> teams, IStatsUpdateSink sink) {
+        StatsSubscription subscription = new StatsSubscription(Set.copyOf(players), Set.copyOf(teams),
+                playerStatsManager, teamStatsManager, sink, executor, this::unsubscribe);
+
+        subscriptions.add(subscription);
+        subscription.players().forEach(name -> addWatcher(playerWatchers, name, subscription));
+        subscription.teams().forEach(name -> addWatcher(teamWatchers, name, subscription));
+
+        subscription.signal();
+        return subscription;
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    private void unsubscribe(StatsSubscription subscription) {
+        subscriptions.remove(subscription);
+        subscription.players().forEach(name -> removeWatcher(playerWatchers, name, subscription));
+        subscription.teams().forEach(name -> removeWatcher(teamWatchers, name, subscription));
+    }
+
+    // Both updates run inside compute, so a set emptied by one unsubscribe is never handed to a new
+    // subscriber after it was dropped from the map.
+    private static void addWatcher(Map<String, Set<StatsSubscription>> watchers, String name,
+                                   StatsSubscription subscription) {
+        watchers.compute(name, (key, watching) -> {
+            Set<StatsSubscription> updated = watching != null ? watching : ConcurrentHashMap.newKeySet();
+            updated.add(subscription);
+            return updated;
+        });
+    }
+
+    private static void removeWatcher(Map<String, Set<StatsSubscription>> watchers, String name,
+                                      StatsSubscription subscription) {
+        watchers.computeIfPresent(name, (key, watching) -> {
+            watching.remove(subscription);
+            return watching.isEmpty() ? null : watching;
+        });
+    }
+
+    private static void onChange(EntityKind kind, String name, Map<String, Set<StatsSubscription>> watchers) {
+        Set<StatsSubscription> watching = watchers.get(name);
+        if (watching == null) {
+            return;
+        }
+        for (StatsSubscription subscription : watching) {
+            subscription.markDirty(kind, name);
+        }
+    }
+}
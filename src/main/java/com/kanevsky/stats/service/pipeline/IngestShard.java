@@ -0,0 +1,245 @@
+package com.kanevsky.stats.service.pipeline;
+
+import com.kanevsky.stats.model.Stats;
+import com.kanevsky.stats.repos.IStatsManager;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One partition of the sharded ingest pipeline: a bounded ring buffer and the single worker thread
+ * that owns every key routed to it. Producers only publish; the worker is the sole writer of its
+ * keys, so their calculators need no synchronization between writers.
+ */
+@Slf4j
+public class IngestShard implements Runnable {
+
+    private static final int DRAIN_LIMIT = 256;
+    private static final int IDLE_SPINS = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long BACKOFF_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * Adds {@code stats} to {@code name}, or subtracts them if {@code retraction} is set.
+     */
+    public record Update(IStatsManager statsManager, String name, Stats stats, boolean retraction) {
+    }
+
+    // Fills a claimed slot that ends up unused; the worker skips it.
+    private static final Update SKIP = new Update(null, null, null, false);
+
+    private final int index;
+    private final MpscRingBuffer<Update> buffer;
+    private final Thread worker;
+
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong backpressureWaits = new AtomicLong();
+    private volatile int highWaterMark;
+
+    private volatile boolean running = true;
+    private volatile boolean parked;
+
+    public IngestShard(int index, int capacity) {
+        this.index = index;
+        this.buffer = new MpscRingBuffer<>(capacity);
+        this.worker = new Thread(this, "ingest-shard-" + index);
+        this.worker.setDaemon(true);
+    }
+
+    public void start() {
+        worker.start();
+    }
+
+    /**
+     * Enqueues an update for {@code name}. When the buffer is full the caller backs off until the
+     * worker frees a slot or {@code timeoutNanos} elapses.
+     *
+     * @return false if the update was rejected because the buffer stayed full or the shard stopped
+     */
+    public boolean publish(IStatsManager statsManager, String name, Stats stats, long timeoutNanos) {
+        return publishAll(new IngestShard[]{this}, new Update[]{new Update(statsManager, name, stats, false)},
+                timeoutNanos);
+    }
+
+    /**
+     * Enqueues {@code updates[i]} on {@code shards[i]} as a unit: a slot is claimed in every buffer
+     * before any update is published, so either all of them are queued or none is. A shard may
+     * appear more than once. Back-pressure is handled as in {@link #publish}.
+     *
+     * @return false, with nothing queued, if some buffer stayed full or a shard stopped
+     */
+    public static boolean publishAll(IngestShard[] shards, Update[] updates, long timeoutNanos) {
+        long[] claimed = new long[updates.length];
+        long deadline = 0;
+        boolean waited = false;
+        while (true) {
+            int full = claimAll(shards, claimed);
+            if (full < 0) {
+                for (int i = 0; i < updates.length; i++) {
+                    shards[i].buffer.fill(claimed[i], updates[i]);
+                }
+                for (IngestShard shard : shards) {
+                    shard.published();
+                }
+                return true;
+            }
+
+            IngestShard blocked = shards[full];
+            if (!waited) {
+                waited = true;
+                blocked.backpressureWaits.incrementAndGet();
+                deadline = System.nanoTime() + timeoutNanos;
+            }
+            for (IngestShard shard : shards) {
+                if (!shard.running) {
+                    blocked.rejected.incrementAndGet();
+                    return false;
+                }
+                shard.wakeWorker();
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                blocked.rejected.incrementAndGet();
+                return false;
+            }
+            LockSupport.parkNanos(BACKOFF_PARK_NANOS);
+        }
+    }
+
+    // Claims one slot per update and returns -1, or returns the index of a shard without room. Full
+    // buffers are detected up front; a slot claimed before a racing publisher fills a later buffer
+    // is released as SKIP at once, so no worker is held up while the publisher backs off.
+    private static int claimAll(IngestShard[] shards, long[] claimed) {
+        for (int i = 0; i < shards.length; i++) {
+            int needed = 0;
+            for (IngestShard shard : shards) {
+                if (shard == shards[i]) {
+                    needed++;
+                }
+            }
+            if (shards[i].buffer.size() + needed > shards[i].buffer.capacity()) {
+                return i;
+            }
+        }
+        for (int i = 0; i < shards.length; i++) {
+            claimed[i] = shards[i].buffer.claim();
+            if (claimed[i] < 0) {
+                for (int j = 0; j < i; j++) {
+                    shards[j].buffer.fill(claimed[j], SKIP);
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void published() {
+        int depth = buffer.size();
+        if (depth > highWaterMark) {
+            highWaterMark = depth;
+        }
+        wakeWorker();
+    }
+
+    @Override
+    public void run() {
+        int idle = 0;
+        while (running || !buffer.isEmpty()) {
+            if (buffer.drain(this::apply, DRAIN_LIMIT) > 0) {
+                idle = 0;
+            } else if (++idle < IDLE_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                parked = true;
+                if (buffer.isEmpty() && running) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                parked = false;
+            }
+        }
+    }
+
+    private void apply(Update update) {
+        if (update == SKIP) {
+            return;
+        }
+        boolean success = update.retraction()
+                ? update.statsManager().retract(update.stats(), update.name())
+                : update.statsManager().submit(update.stats(), update.name());
+        if (success) {
+            applied.lazySet(applied.get() + 1);
+        } else {
+            failed.lazySet(failed.get() + 1);
+            log.error("Shard {} failed to apply stats for: {}", index, update.name());
+        }
+    }
+
+    private void wakeWorker() {
+        if (parked) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * Blocks until every update published before this call has been applied, or the timeout
+     * elapses.
+     *
+     * @return true if the shard drained in time
+     */
+    public boolean awaitDrained(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!buffer.isEmpty()) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            wakeWorker();
+            LockSupport.parkNanos(BACKOFF_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting blocked publishers, lets the worker apply what is already queued, and waits
+     * for it to exit.
+     */
+    public void stop(long timeout, TimeUnit unit) throws InterruptedException {
+        running = false;
+        LockSupport.unpark(worker);
+        worker.join(unit.toMillis(timeout));
+    }
+
+    public int index() {
+        return index;
+    }
+
+    public int queueDepth() {
+        return buffer.size();
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    public int highWaterMark() {
+        return highWaterMark;
+    }
+
+    public long applied() {
+        return applied.get();
+    }
+
+    public long failed() {
+        return failed.get();
+    }
+
+    public long rejected() {
+        return rejected.get();
+    }
+
+    public long backpressureWaits() {
+        return backpressureWaits.get();
+    }
+}
@@ -0,0 +1,109 @@
+package com.kanevsky.stats.service.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer. Producers claim a slot with one CAS on the
+ * tail sequence and then publish into it; the single consumer drains slots in order without any
+ * atomic read-modify-write.
+ */
+public class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        slots = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    /**
+     * @return false when the buffer is full
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("Element cannot be null");
+        }
+
+        long claimed = claim();
+        if (claimed < 0) {
+            return false;
+        }
+        fill(claimed, element);
+        return true;
+    }
+
+    /**
+     * Claims the next slot without publishing into it. The consumer stops at a claimed slot until
+     * it is filled, so every claimed slot must be filled promptly.
+     *
+     * @return the slot's sequence, or -1 when the buffer is full
+     */
+    public long claim() {
+        long claimed;
+        do {
+            claimed = tail.get();
+            if (claimed - head >= slots.length()) {
+                return -1;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + 1));
+        return claimed;
+    }
+
+    /**
+     * Publishes {@code element} into a slot returned by {@link #claim}.
+     */
+    public void fill(long sequence, E element) {
+        if (element == null) {
+            throw new NullPointerException("Element cannot be null");
+        }
+        // The slot was cleared by the consumer before head moved past it.
+        slots.lazySet((int) sequence & mask, element);
+    }
+
+    /**
+     * Hands up to {@code limit} elements, in publication order, to {@code consumer}. Must only be
+     * called from the consumer thread.
+     *
+     * @return the number of elements drained
+     */
+    public int drain(Consumer<E> consumer, int limit) {
+        long current = head;
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) current & mask;
+            E element = slots.get(index);
+            if (element == null) {
+                // Empty, or a producer has claimed the slot but not yet published into it.
+                break;
+            }
+            slots.lazySet(index, null);
+            consumer.accept(element);
+            // Advanced only after the element is handled, so an empty buffer means fully consumed.
+            head = ++current;
+            drained++;
+        }
+        return drained;
+    }
+
+    public int size() {
+        long currentHead = head;
+        return (int) Math.max(0, tail.get() - currentHead);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+}
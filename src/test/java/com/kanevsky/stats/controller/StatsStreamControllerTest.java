@@ -0,0 +1,141 @@
+package com.kanevsky.stats.controller;
+
+import com.kanevsky.stats.mappers.IPlayerMapperImpl;
+import com.kanevsky.stats.mappers.ITeamMapperImpl;
+import com.kanevsky.stats.model.Stats;
+import com.kanevsky.stats.repos.StatsManager;
+import com.kanevsky.stats.repos.StatsRepo;
+import com.kanevsky.stats.service.live.StatsSubscriptionHub;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class StatsStreamControllerTest {
+
+    private final StatsSubscriptionHub hub = new StatsSubscriptionHub();
+    private final StatsStreamController controller = new StatsStreamController();
+    private StatsManager playerStatsManager;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        playerStatsManager = new StatsManager(new StatsRepo());
+        ReflectionTestUtils.setField(hub, "playerStatsManager", playerStatsManager);
+        ReflectionTestUtils.setField(hub, "teamStatsManager", new StatsManager(new StatsRepo()));
+        ReflectionTestUtils.setField(hub, "deliveryThreads", 1);
+        hub.start();
+
+        ReflectionTestUtils.setField(controller, "subscriptionHub", hub);
+        ReflectionTestUtils.setField(controller, "playerMapper", new IPlayerMapperImpl());
+        ReflectionTestUtils.setField(controller, "teamMapper", new ITeamMapperImpl());
+        ReflectionTestUtils.setField(controller, "maxKeysPerConnection", 2);
+        ReflectionTestUtils.setField(controller, "maxConnections", 1);
+        ReflectionTestUtils.setField(controller, "writerThreads", 1);
+        controller.start();
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        controller.stop();
+        hub.stop();
+    }
+
+    @Test
+    void testStreamWithoutKeysRejected() throws Exception {
+        mockMvc.perform(get("/api/stats/stream")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/stats/stream").param("players", " ")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testStreamWithTooManyKeysRejected() throws Exception {
+        mockMvc.perform(get("/api/stats/stream").param("players", "John Doe", "Jane Roe").param("teams", "Lakers"))
+                .andExpect(status().isBadRequest());
+        assertEquals(0, hub.subscriberCount());
+    }
+
+    @Test
+    void testStreamsOverLimitUnavailable() throws Exception {
+        open("John Doe");
+
+        mockMvc.perform(get("/api/stats/stream").param("players", "Jane Roe"))
+                .andExpect(status().isServiceUnavailable());
+        assertEquals(1, hub.subscriberCount());
+    }
+
+    @Test
+    void testCurrentValuesSentOnConnect() throws Exception {
+        playerStatsManager.submit(new Stats(10, 0, 0, 0, 0, 0, 0, 0), "John Doe");
+
+        MvcResult result = open("John Doe");
+
+        awaitTrue(() -> content(result).contains("\"John Doe\""));
+        assertTrue(content(result).startsWith("event:player"));
+    }
+
+    @Test
+    void testSubscriptionReleasedWhenStreamCompletes() throws Exception {
+        MvcResult result = open("John Doe");
+        assertEquals(1, hub.subscriberCount());
+
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onComplete(new AsyncEvent(asyncContext));
+        }
+
+        assertEquals(0, hub.subscriberCount());
+        open("Jane Roe");
+    }
+
+    @Test
+    void testSubscriptionReleasedWhenStreamTimesOut() throws Exception {
+        MvcResult result = open("John Doe");
+
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        assertEquals(0, hub.subscriberCount());
+        open("Jane Roe");
+    }
+
+    private MvcResult open(String player) throws Exception {
+        return mockMvc.perform(get("/api/stats/stream").param("players", player))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static String content(MvcResult result) {
+        try {
+            return result.getResponse().getContentAsString();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for delivery");
+            Thread.onSpinWait();
+        }
+    }
+}
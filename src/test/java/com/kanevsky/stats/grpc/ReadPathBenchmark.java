@@ -0,0 +1,124 @@
+package com.kanevsky.stats.grpc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kanevsky.stats.App;
+import com.kanevsky.stats.model.Stats;
+import com.kanevsky.stats.repos.IStatsManager;
+import com.kanevsky.stats.service.RecoveryGate;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-observed read latency against a running app over loopback: one player over REST (JSON
+ * parsed into a tree) versus {@code GetPlayerStats}, plus a 100-name {@code GetStatsBatch}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ReadPathBenchmark {
+
+    private static final int PLAYERS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private ManagedChannel channel;
+    private StatsQueryServiceGrpc.StatsQueryServiceBlockingStub stub;
+    private HttpClient httpClient;
+    private ObjectMapper objectMapper;
+
+    private HttpRequest restRequest;
+    private StatsQuery grpcQuery;
+    private StatsBatchQuery grpcBatchQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        int grpcPort = freePort();
+        context = SpringApplication.run(App.class, "--server.port=0", "--grpc.server.port=" + grpcPort,
+                "--logging.level.root=WARN");
+        int httpPort = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+
+        // Recovery rebuilds the aggregates in the background, so seed only once it has finished.
+        if (!context.getBean(RecoveryGate.class).awaitReady(Long.MAX_VALUE)) {
+            throw new IllegalStateException("Recovery failed");
+        }
+        IStatsManager playerStatsManager = context.getBean("playerStatsManager", IStatsManager.class);
+        for (int i = 0; i < PLAYERS; i++) {
+            playerStatsManager.submit(new Stats(i % 40, 7, 8, 1, 1, 2, 3, 36.5), "player" + i);
+        }
+
+        channel = ManagedChannelBuilder.forAddress("localhost", grpcPort).usePlaintext().build();
+        stub = StatsQueryServiceGrpc.newBlockingStub(channel);
+        httpClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+
+        restRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + httpPort + "/api/stats/player/player42")).build();
+        grpcQuery = StatsQuery.newBuilder().setName("player42").build();
+        StatsBatchQuery.Builder batch = StatsBatchQuery.newBuilder().setType(EntityType.PLAYER);
+        for (int i = 0; i < 100; i++) {
+            batch.addNames("player" + i * 7);
+        }
+        grpcBatchQuery = batch.build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+        context.close();
+    }
+
+    @Benchmark
+    public JsonNode restPlayer() throws IOException, InterruptedException {
+        return objectMapper.readTree(httpClient.send(restRequest, HttpResponse.BodyHandlers.ofByteArray()).body());
+    }
+
+    @Benchmark
+    public StatsReply grpcPlayer() {
+        return stub.getPlayerStats(grpcQuery);
+    }
+
+    @Benchmark
+    public StatsBatchReply grpcBatch100() {
+        return stub.getStatsBatch(grpcBatchQuery);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ReadPathBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
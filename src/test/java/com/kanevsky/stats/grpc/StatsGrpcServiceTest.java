@@ -0,0 +1,258 @@
+package com.kanevsky.stats.grpc;
+
+import com.kanevsky.stats.dto.StatsEntryDto;
+import com.kanevsky.stats.mappers.IGrpcMapper;
+import com.kanevsky.stats.model.Stats;
+import com.kanevsky.stats.service.CorrectionResult;
+import com.kanevsky.stats.service.IIngestService;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StatsGrpcServiceTest {
+
+    @Mock
+    private IIngestService ingestService;
+
+    @Mock
+    private IGrpcMapper grpcMapper;
+
+    private StatsGrpcService statsGrpcService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        statsGrpcService = new StatsGrpcService(ingestService, grpcMapper);
+        when(grpcMapper.toStats(any())).thenAnswer(invocation -> {
+            GameStats gameStats = invocation.getArgument(0);
+            return new Stats(gameStats.getPoints(), 0, 0, 0, 0, 0, 0, 0);
+        });
+    }
+
+    @Test
+    void testIngestStream_AppliesEntriesAsTheyArrive() {
+        when(ingestService.processStats(anyString(), anyString(), any())).thenReturn(true);
+        RecordingObserver<IngestResponse> responses = new RecordingObserver<>();
+
+        StreamObserver<StatsEntry> requests = statsGrpcService.ingestStream(responses);
+        requests.onNext(entry("p1"));
+        requests.onNext(entry("p2"));
+
+        verify(ingestService).processStats("p1", "Lakers", new Stats(10, 0, 0, 0, 0, 0, 0, 0));
+        verify(ingestService).processStats("p2", "Lakers", new Stats(10, 0, 0, 0, 0, 0, 0, 0));
+        verify(grpcMapper, never()).toStatsEntryDto(any());
+        assertTrue(responses.values.isEmpty());
+
+        requests.onCompleted();
+
+        assertTrue(responses.completed);
+        assertEquals(1, responses.values.size());
+        assertEquals(2, responses.values.get(0).getSuccessCount());
+        assertEquals(0, responses.values.get(0).getErrorsCount());
+    }
+
+    @Test
+    void testIngestStream_ReportsFailedEntriesUpToCap() {
+        when(ingestService.processStats(anyString(), anyString(), any()))
+                .thenAnswer(invocation -> !((String) invocation.getArgument(0)).startsWith("bad"));
+        RecordingObserver<IngestResponse> responses = new RecordingObserver<>();
+
+        StreamObserver<StatsEntry> requests = statsGrpcService.ingestStream(responses);
+        requests.onNext(entry("good"));
+        requests.onNext(entry("bad"));
+        for (int i = 0; i < StatsGrpcService.MAX_STREAM_ERRORS + 10; i++) {
+            requests.onNext(entry("bad" + i));
+        }
+        requests.onCompleted();
+
+        IngestResponse response = responses.values.get(0);
+        assertEquals(1, response.getSuccessCount());
+        assertEquals(StatsGrpcService.MAX_STREAM_ERRORS, response.getErrorsCount());
+        assertEquals("entries[1]", response.getErrors(0).getFieldPath());
+    }
+
+    @Test
+    void testIngestSession_AcksCumulativelyAtConfiguredCadence() {
+        ReflectionTestUtils.setField(statsGrpcService, "ackEvery", 2);
+        when(ingestService.processBatch(any(), any(), any())).thenAnswer(invocation -> {
+            Stats[] stats = invocation.getArgument(2);
+            return stats.length == 3 ? 2 : stats.length;
+        });
+        RecordingObserver<IngestAck> acks = new RecordingObserver<>();
+
+        StreamObserver<IngestChunk> chunks = statsGrpcService.ingestSession(acks);
+        chunks.onNext(chunk(0, 2));
+        assertTrue(acks.values.isEmpty());
+        chunks.onNext(chunk(1, 3));
+        chunks.onNext(chunk(2, 1));
+        chunks.onCompleted();
+
+        assertTrue(acks.completed);
+        assertEquals(2, acks.values.size());
+
+        IngestAck first = acks.values.get(0);
+        assertEquals(1, first.getAckedSequence());
+        assertEquals(4, first.getSuccessCount());
+        assertEquals(1, first.getErrorsCount());
+        assertEquals(1, first.getErrors(0).getSequence());
+
+        IngestAck last = acks.values.get(1);
+        assertEquals(2, last.getAckedSequence());
+        assertEquals(5, last.getSuccessCount());
+        assertEquals(0, last.getErrorsCount());
+    }
+
+    @Test
+    void testIngestSession_SkipsReplayedChunk() {
+        ReflectionTestUtils.setField(statsGrpcService, "ackEvery", 1);
+        when(ingestService.processBatch(any(), any(), any())).thenReturn(1);
+        RecordingObserver<IngestAck> acks = new RecordingObserver<>();
+
+        StreamObserver<IngestChunk> chunks = statsGrpcService.ingestSession(acks);
+        chunks.onNext(chunk(5, 1));
+        chunks.onNext(chunk(5, 1));
+
+        verify(ingestService, times(1)).processBatch(any(), any(), any());
+        IngestAck replayAck = acks.values.get(1);
+        assertEquals(5, replayAck.getAckedSequence());
+        assertEquals(1, replayAck.getSuccessCount());
+        assertEquals(5, replayAck.getErrors(0).getSequence());
+    }
+
+    @Test
+    void testIngestStats_MapsProtoEntriesDirectly() {
+        when(ingestService.processBatch(any(), any(), any())).thenReturn(2);
+        RecordingObserver<IngestResponse> responses = new RecordingObserver<>();
+        StatsBatchRequest request = StatsBatchRequest.newBuilder()
+                .addEntries(entry("p1"))
+                .addEntries(entry("p2"))
+                .build();
+
+        statsGrpcService.ingestStats(request, responses);
+
+        verify(ingestService).processBatch(
+                new String[]{"p1", "p2"},
+                new String[]{"Lakers", "Lakers"},
+                new Stats[]{new Stats(10, 0, 0, 0, 0, 0, 0, 0), new Stats(10, 0, 0, 0, 0, 0, 0, 0)});
+        verify(grpcMapper, never()).toStatsEntryDtoList(any());
+        assertEquals(2, responses.values.get(0).getSuccessCount());
+    }
+
+    @Test
+    void testCorrectStats_PassesBothEntriesToIngestService() {
+        StatsEntryDto original = new StatsEntryDto();
+        StatsEntryDto corrected = new StatsEntryDto();
+        when(grpcMapper.toStatsEntryDto(entry("p1"))).thenReturn(original);
+        when(grpcMapper.toStatsEntryDto(entry("p2"))).thenReturn(corrected);
+        when(ingestService.correct("fix-1", original, corrected)).thenReturn(CorrectionResult.APPLIED);
+        RecordingObserver<IngestResponse> responses = new RecordingObserver<>();
+
+        statsGrpcService.correctStats(StatsCorrection.newBuilder()
+                .setOriginal(entry("p1"))
+                .setCorrected(entry("p2"))
+                .setCorrectionId("fix-1")
+                .build(), responses);
+
+        verify(ingestService).correct("fix-1", original, corrected);
+        assertTrue(responses.completed);
+        assertEquals(1, responses.values.get(0).getSuccessCount());
+    }
+
+    @Test
+    void testCorrectStats_CorrectedLineRejectedReportedAsInvalid() {
+        StatsEntryDto original = new StatsEntryDto();
+        original.setPlayerName("p1");
+        original.setTeamName("Lakers");
+        StatsEntryDto corrected = new StatsEntryDto();
+        corrected.setPlayerName("p2");
+        corrected.setTeamName("Lakers");
+        when(grpcMapper.toStatsEntryDto(entry("p1"))).thenReturn(original);
+        when(grpcMapper.toStatsEntryDto(entry("p2"))).thenReturn(corrected);
+        when(ingestService.correct("fix-1", original, corrected)).thenReturn(CorrectionResult.CORRECTED_REJECTED);
+        RecordingObserver<IngestResponse> responses = new RecordingObserver<>();
+        responses.expectingError = true;
+
+        statsGrpcService.correctStats(StatsCorrection.newBuilder()
+                .setOriginal(entry("p1"))
+                .setCorrected(entry("p2"))
+                .setCorrectionId("fix-1")
+                .build(), responses);
+
+        Status status = Status.fromThrowable(responses.error);
+        assertEquals(Status.Code.INVALID_ARGUMENT, status.getCode());
+        assertEquals("Corrected line rejected, stats and names are required for player: p2, team: Lakers",
+                status.getDescription());
+        assertFalse(responses.completed);
+    }
+
+    @Test
+    void testRetractStats_OriginalNotFoundNamesOperation() {
+        StatsEntryDto original = new StatsEntryDto();
+        original.setPlayerName("p1");
+        original.setTeamName("Lakers");
+        when(grpcMapper.toStatsEntryDto(entry("p1"))).thenReturn(original);
+        when(ingestService.correct("fix-1", original, null)).thenReturn(CorrectionResult.ORIGINAL_NOT_FOUND);
+        RecordingObserver<IngestResponse> responses = new RecordingObserver<>();
+        responses.expectingError = true;
+
+        statsGrpcService.retractStats(StatsRetraction.newBuilder()
+                .setOriginal(entry("p1"))
+                .setCorrectionId("fix-1")
+                .build(), responses);
+
+        Status status = Status.fromThrowable(responses.error);
+        assertEquals(Status.Code.NOT_FOUND, status.getCode());
+        assertEquals("Original line not found to retract for player: p1, team: Lakers", status.getDescription());
+    }
+
+    private static IngestChunk chunk(long sequence, int entries) {
+        IngestChunk.Builder chunk = IngestChunk.newBuilder().setSequence(sequence);
+        for (int i = 0; i < entries; i++) {
+            chunk.addEntries(entry("p" + i));
+        }
+        return chunk.build();
+    }
+
+    private static StatsEntry entry(String playerName) {
+        return StatsEntry.newBuilder()
+                .setPlayerName(playerName)
+                .setTeamName("Lakers")
+                .setStats(GameStats.newBuilder().setPoints(10).build())
+                .build();
+    }
+
+    private static class RecordingObserver<T> implements StreamObserver<T> {
+        private final List<T> values = new ArrayList<>();
+        private boolean completed;
+        private boolean expectingError;
+        private Throwable error;
+
+        @Override
+        public void onNext(T value) {
+            values.add(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!expectingError) {
+                fail(t);
+            }
+            error = t;
+        }
+
+        @Override
+        public void onCompleted() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.kanevsky.stats.grpc;
+
+import com.kanevsky.stats.model.Stats;
+import com.kanevsky.stats.repos.StatsManager;
+import com.kanevsky.stats.repos.StatsRepo;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsQueryGrpcServiceTest {
+
+    private final StatsQueryGrpcService queryService = new StatsQueryGrpcService();
+
+    @BeforeEach
+    void setUp() {
+        StatsManager playerStatsManager = new StatsManager(new StatsRepo());
+        StatsManager teamStatsManager = new StatsManager(new StatsRepo());
+        playerStatsManager.submit(new Stats(20, 10, 5, 2, 1, 3, 2, 36), "John Doe");
+        playerStatsManager.submit(new Stats(10, 0, 1, 0, 1, 1, 0, 24), "John Doe");
+        teamStatsManager.submit(new Stats(20, 10, 5, 2, 1, 3, 2, 36), "Lakers");
+        ReflectionTestUtils.setField(queryService, "playerStatsManager", playerStatsManager);
+        ReflectionTestUtils.setField(queryService, "teamStatsManager", teamStatsManager);
+    }
+
+    @Test
+    void testGetPlayerStats() {
+        RecordingObserver<StatsReply> observer = new RecordingObserver<>();
+
+        queryService.getPlayerStats(StatsQuery.newBuilder().setName("John Doe").build(), observer);
+
+        assertTrue(observer.completed);
+        StatsReply reply = observer.values.get(0);
+        assertEquals("John Doe", reply.getName());
+        assertTrue(reply.getFound());
+        assertEquals(15, reply.getStats().getPoints());
+        assertEquals(3, reply.getStats().getAssists());
+        assertEquals(30, reply.getStats().getMinutesPlayed());
+    }
+
+    @Test
+    void testGetTeamStats_NotFound() {
+        RecordingObserver<StatsReply> observer = new RecordingObserver<>();
+
+        queryService.getTeamStats(StatsQuery.newBuilder().setName("Celtics").build(), observer);
+
+        assertTrue(observer.values.isEmpty());
+        assertEquals(Status.Code.NOT_FOUND, ((StatusRuntimeException) observer.error).getStatus().getCode());
+    }
+
+    @Test
+    void testGetStatsBatch_PreservesOrderAndFlagsUnknownNames() {
+        RecordingObserver<StatsBatchReply> observer = new RecordingObserver<>();
+        StatsBatchQuery query = StatsBatchQuery.newBuilder()
+                .setType(EntityType.TEAM)
+                .addNames("Celtics")
+                .addNames("Lakers")
+                .build();
+
+        queryService.getStatsBatch(query, observer);
+
+        List<StatsReply> results = observer.values.get(0).getResultsList();
+        assertEquals(2, results.size());
+        assertEquals("Celtics", results.get(0).getName());
+        assertFalse(results.get(0).getFound());
+        assertFalse(results.get(0).hasStats());
+        assertEquals("Lakers", results.get(1).getName());
+        assertTrue(results.get(1).getFound());
+        assertEquals(20, results.get(1).getStats().getPoints());
+    }
+
+    private static class RecordingObserver<T> implements StreamObserver<T> {
+        private final List<T> values = new ArrayList<>();
+        private Throwable error;
+        private boolean completed;
+
+        @Override
+        public void onNext(T value) {
+            values.add(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onCompleted() {
+            completed = true;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import build.buf.protovalidate.ValidationResult;
 import com.kanevsky.stats.dto.StatsBatchRequestDto;
 import com.kanevsky.stats.dto.StatsEntryDto;
 import com.kanevsky.stats.grpc.GameStats;
+import com.kanevsky.stats.grpc.IngestChunk;
 import com.kanevsky.stats.grpc.StatsBatchRequest;
 import com.kanevsky.stats.grpc.StatsEntry;
 import com.kanevsky.stats.grpc.validations.ProtoValidationService;
@@ -230,6 +231,20 @@ public class ValidationIntegrationTest {
         assertTrue(result.getViolations().size() > 1, "Expected multiple violations");
     }
 
+    @Test
+    public void testProtoValidation_IngestChunk() throws Exception {
+        // Arrange
+        IngestChunk valid = IngestChunk.newBuilder()
+                .setSequence(0)
+                .addAllEntries(createValidStatsBatchRequest().getEntriesList())
+                .build();
+        IngestChunk empty = IngestChunk.newBuilder().setSequence(1).build();
+
+        // Act & Assert
+        assertTrue(protoValidationService.validate(valid).isSuccess(), "Expected valid chunk");
+        assertFalse(protoValidationService.validate(empty).isSuccess(), "Expected chunk without entries to be invalid");
+    }
+
     // Helper methods
 
     private StatsEntryDto createValidStatsEntry() {
@@ -0,0 +1,73 @@
+package com.kanevsky.stats.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-line cost of folding a game into an aggregate. Run {@link #main} and compare the
+ * {@code gc.alloc.rate.norm} column: the in-place calculators should report ~0 B/op for
+ * {@code accept} and one {@link Stats} per {@code getAverage}, while the old running-mean formula
+ * allocates on every line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AverageCalculatorBenchmark {
+
+    @Param({"LOCKING", "STRIPED", "EXACT"})
+    private CalculatorType calculatorType;
+
+    private IAverageCalculator calculator;
+    private Stats gameStats;
+    private Stats runningMean;
+    private int gamesPlayed;
+
+    @Setup
+    public void setUp() {
+        calculator = calculatorType.factory().get();
+        gameStats = new Stats(28, 7, 8, 1, 1, 2, 3, 36.5);
+        runningMean = new Stats();
+        gamesPlayed = 0;
+    }
+
+    @Benchmark
+    public void accept() {
+        calculator.accept(gameStats);
+    }
+
+    @Benchmark
+    public Stats getAverage() {
+        return calculator.getAverage();
+    }
+
+    @Benchmark
+    public Stats runningMeanFormula() {
+        runningMean = runningMean.multiply(gamesPlayed).add(gameStats).divide(++gamesPlayed);
+        return runningMean;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AverageCalculatorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
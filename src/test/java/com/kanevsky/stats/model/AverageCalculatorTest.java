@@ -261,4 +261,18 @@ class AverageCalculatorTest {
         Stats finalAverage = calculator.getAverage();
         assertEquals(15, finalAverage.getPoints());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testMergePreAggregatedTotals() {
+        AverageCalculator calculator = new AverageCalculator();
+
+        calculator.accept(new Stats(10, 5, 3, 1, 2, 3, 2, 30));
+        calculator.merge(new Stats(50, 10, 6, 2, 4, 1, 1, 60), 2);
+
+        Stats average = calculator.getAverage();
+
+        assertEquals(20, average.getPoints());
+        assertEquals(5, average.getRebounds());
+        assertEquals(30, average.getMinutesPlayed());
+    }
+}
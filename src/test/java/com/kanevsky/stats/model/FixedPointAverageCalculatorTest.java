@@ -0,0 +1,82 @@
+package com.kanevsky.stats.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+class FixedPointAverageCalculatorTest {
+
+    @Test
+    void testInitialState() {
+        FixedPointAverageCalculator calculator = new FixedPointAverageCalculator();
+
+        assertEquals(new Stats(), calculator.getAverage());
+    }
+
+    @Test
+    void testAddMultipleGameStats() {
+        FixedPointAverageCalculator calculator = new FixedPointAverageCalculator();
+
+        calculator.accept(new Stats(20, 10, 5, 2, 1, 3, 2, 36.5));
+        calculator.accept(new Stats(10, 5, 3, 1, 0, 2, 1, 24.25));
+
+        Stats average = calculator.getAverage();
+
+        assertEquals(new Stats(15, 7.5, 4, 1.5, 0.5, 2.5, 1.5, 30.375), average);
+    }
+
+    @Test
+    void testMinutesAreExactInHundredths() {
+        FixedPointAverageCalculator calculator = new FixedPointAverageCalculator();
+
+        for (int i = 0; i < 10; i++) {
+            calculator.accept(new Stats(0, 0, 0, 0, 0, 0, 0, 0.1));
+        }
+
+        // Summing 0.1 ten times in double arithmetic gives 0.9999999999999999
+        assertEquals(0.1, calculator.getAverage().getMinutesPlayed());
+
+        Stats totals = new Stats();
+        assertEquals(10, calculator.addTotalsTo(totals));
+        assertEquals(1.0, totals.getMinutesPlayed());
+    }
+
+    @Test
+    void testRetractionRestoresExactTotals() {
+        FixedPointAverageCalculator calculator = new FixedPointAverageCalculator();
+        Stats kept = new Stats(20, 10, 5, 2, 1, 3, 2, 36.5);
+        // Rounds to 2401 hundredths; the negation must round to -2401, not -2400.
+        Stats retracted = new Stats(10, 5, 3, 1, 0, 2, 1, 24.005);
+
+        calculator.accept(kept);
+        calculator.accept(retracted);
+        calculator.merge(retracted.negate(), -1);
+
+        assertEquals(1, calculator.getGamesPlayed());
+        assertEquals(kept, calculator.getAverage());
+    }
+
+    @Test
+    void testAverageIndependentOfArrivalOrder() {
+        Random random = new Random(42);
+        List<Stats> games = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            games.add(new Stats(random.nextInt(60), random.nextInt(25), random.nextInt(20), random.nextInt(6),
+                    random.nextInt(6), random.nextInt(7), random.nextInt(10), random.nextInt(4801) / 100.0));
+        }
+
+        FixedPointAverageCalculator inOrder = new FixedPointAverageCalculator();
+        games.forEach(inOrder::accept);
+
+        Collections.shuffle(games, random);
+        FixedPointAverageCalculator shuffled = new FixedPointAverageCalculator();
+        games.forEach(shuffled::accept);
+
+        assertEquals(inOrder.getAverage(), shuffled.getAverage());
+    }
+}
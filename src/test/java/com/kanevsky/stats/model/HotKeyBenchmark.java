@@ -0,0 +1,59 @@
+package com.kanevsky.stats.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write throughput on a single key shared by all benchmark threads, the shape of team updates.
+ * Compare {@code stripes=1} against larger counts while varying {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class HotKeyBenchmark {
+
+    @Param({"LOCKING", "STRIPED", "EXACT"})
+    private CalculatorType calculatorType;
+
+    @Param({"1", "8", "32"})
+    private int stripes;
+
+    private IAverageCalculator calculator;
+    private Stats gameStats;
+
+    @Setup
+    public void setUp() {
+        calculator = new PartitionedAverageCalculator(stripes, calculatorType.factory());
+        gameStats = new Stats(28, 7, 8, 1, 1, 2, 3, 36.5);
+    }
+
+    @Benchmark
+    public void accept() {
+        calculator.accept(gameStats);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HotKeyBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,67 @@
+package com.kanevsky.stats.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class PartitionedAverageCalculatorTest {
+
+    @Test
+    void testStripeCountRoundedToPowerOfTwo() {
+        assertEquals(1, new PartitionedAverageCalculator(1, AverageCalculator::new).stripeCount());
+        assertEquals(4, new PartitionedAverageCalculator(3, AverageCalculator::new).stripeCount());
+        assertEquals(8, new PartitionedAverageCalculator(8, AverageCalculator::new).stripeCount());
+    }
+
+    @Test
+    void testInvalidStripeCount() {
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedAverageCalculator(0, AverageCalculator::new));
+    }
+
+    @Test
+    void testInitialState() {
+        PartitionedAverageCalculator calculator = new PartitionedAverageCalculator(4, AverageCalculator::new);
+
+        assertEquals(new Stats(), calculator.getAverage());
+    }
+
+    @Test
+    void testReadMergesStripesWrittenByDifferentThreads() throws InterruptedException {
+        final int numThreads = 8;
+        final int numGamesPerThread = 1000;
+        final PartitionedAverageCalculator calculator = new PartitionedAverageCalculator(4, AverageCalculator::new);
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        CountDownLatch latch = new CountDownLatch(numThreads);
+
+        for (int i = 0; i < numThreads; i++) {
+            final int points = i % 2 == 0 ? 10 : 30;
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < numGamesPerThread; j++) {
+                        calculator.accept(new Stats(points, 5, 3, 1, 2, 3, 2, 30));
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS), "Timed out waiting for threads to complete");
+        executor.shutdown();
+
+        Stats totals = new Stats();
+        assertEquals(numThreads * numGamesPerThread, calculator.addTotalsTo(totals));
+        assertEquals(160_000, totals.getPoints());
+
+        Stats average = calculator.getAverage();
+        assertEquals(20, average.getPoints());
+        assertEquals(5, average.getRebounds());
+        assertEquals(30, average.getMinutesPlayed());
+    }
+}
@@ -0,0 +1,62 @@
+package com.kanevsky.stats.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class SingleWriterAverageCalculatorTest {
+
+    @Test
+    void testInitialState() {
+        SingleWriterAverageCalculator calculator = new SingleWriterAverageCalculator();
+
+        assertEquals(new Stats(), calculator.getAverage());
+    }
+
+    @Test
+    void testAcceptAndMerge() {
+        SingleWriterAverageCalculator calculator = new SingleWriterAverageCalculator();
+
+        calculator.accept(new Stats(20, 10, 5, 2, 1, 3, 2, 36));
+        calculator.merge(new Stats(20, 10, 6, 2, 1, 3, 2, 48), 2);
+
+        Stats average = calculator.getAverage();
+        assertEquals(40.0 / 3, average.getPoints(), 0.0001);
+        assertEquals(11.0 / 3, average.getAssists(), 0.0001);
+        assertEquals(28, average.getMinutesPlayed(), 0.0001);
+
+        Stats totals = new Stats();
+        assertEquals(3, calculator.addTotalsTo(totals));
+        assertEquals(new Stats(40, 20, 11, 4, 2, 6, 4, 84), totals);
+    }
+
+    @Test
+    void testReadersNeverSeePartialWrites() throws InterruptedException {
+        SingleWriterAverageCalculator calculator = new SingleWriterAverageCalculator();
+        Stats game = new Stats(1, 1, 1, 1, 1, 1, 1, 1);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicBoolean torn = new AtomicBoolean();
+
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                Stats totals = new Stats();
+                long games = calculator.addTotalsTo(totals);
+                if (totals.getPoints() != games || totals.getMinutesPlayed() != games) {
+                    torn.set(true);
+                }
+            }
+        });
+        reader.start();
+
+        for (int i = 0; i < 1_000_000; i++) {
+            calculator.accept(game);
+        }
+        done.set(true);
+        reader.join();
+
+        assertFalse(torn.get());
+        assertEquals(game, calculator.getAverage());
+    }
+}
@@ -0,0 +1,82 @@
+package com.kanevsky.stats.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar vs SIMD kernels against the immutable {@link Stats} arithmetic, folding a run of
+ * {@code lines} into one key.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class StatsKernelBenchmark {
+
+    @Param({"500"})
+    private int lines;
+
+    private final IStatsKernel scalar = StatsKernels.scalar();
+    private final IStatsKernel vector = StatsKernels.best();
+
+    private double[] packedLines;
+    private Stats[] statsLines;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        packedLines = new double[lines * Stats.CATEGORIES];
+        statsLines = new Stats[lines];
+        for (int i = 0; i < lines; i++) {
+            statsLines[i] = new Stats(random.nextInt(50), random.nextInt(20), random.nextInt(15), random.nextInt(5),
+                    random.nextInt(5), random.nextInt(7), random.nextInt(8), random.nextInt(4801) / 100.0);
+            statsLines[i].copyTo(packedLines, i * Stats.CATEGORIES);
+        }
+    }
+
+    @Benchmark
+    public Stats statsFold() {
+        Stats sum = new Stats();
+        for (Stats game : statsLines) {
+            sum = sum.add(game);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double[] scalarFold() {
+        double[] sum = new double[Stats.CATEGORIES];
+        scalar.fold(packedLines, lines, sum);
+        return sum;
+    }
+
+    @Benchmark
+    public double[] vectorFold() {
+        double[] sum = new double[Stats.CATEGORIES];
+        vector.fold(packedLines, lines, sum);
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StatsKernelBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,58 @@
+package com.kanevsky.stats.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+class StatsKernelTest {
+
+    private static final IStatsKernel[] KERNELS = {StatsKernels.scalar(), StatsKernels.best()};
+
+    @Test
+    void testVectorKernelSelectedWhenModulePresent() {
+        boolean vectorModule = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+        assertEquals(vectorModule && VectorStatsKernel.fitsCategories(), StatsKernels.best() instanceof VectorStatsKernel);
+    }
+
+    @Test
+    void testFoldMatchesScalarBitForBit() {
+        Random random = new Random(7);
+        int lineCount = 500;
+        double[] lines = new double[lineCount * Stats.CATEGORIES];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = random.nextInt(40) + random.nextInt(100) / 100.0;
+        }
+
+        double[] expected = new double[Stats.CATEGORIES];
+        Stats reference = new Stats();
+        for (int line = 0; line < lineCount; line++) {
+            reference.accumulate(Stats.fromArray(lines, line * Stats.CATEGORIES));
+        }
+        reference.copyTo(expected, 0);
+
+        for (IStatsKernel kernel : KERNELS) {
+            double[] acc = new double[Stats.CATEGORIES];
+            kernel.fold(lines, lineCount, acc);
+
+            assertArrayEquals(expected, acc);
+        }
+    }
+
+    @Test
+    void testFoldIgnoresLinesBeyondCount() {
+        for (IStatsKernel kernel : KERNELS) {
+            double[] lines = new double[3 * Stats.CATEGORIES];
+            new Stats(1, 1, 1, 1, 1, 1, 1, 1).copyTo(lines, 0);
+            new Stats(2, 2, 2, 2, 2, 2, 2, 2).copyTo(lines, Stats.CATEGORIES);
+            new Stats(100, 100, 100, 100, 100, 100, 100, 100).copyTo(lines, 2 * Stats.CATEGORIES);
+            double[] acc = new double[Stats.CATEGORIES];
+
+            kernel.fold(lines, 2, acc);
+
+            assertEquals(new Stats(3, 3, 3, 3, 3, 3, 3, 3), Stats.fromArray(acc, 0));
+        }
+    }
+}
@@ -143,4 +143,34 @@ class StatsTest {
         assertEquals(stats1.hashCode(), stats2.hashCode());
         assertNotEquals(stats1.hashCode(), stats3.hashCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testAccumulateInPlace() {
+        Stats totals = new Stats(10, 5, 3, 1, 2, 3, 2, 30);
+        Stats game = new Stats(20, 10, 7, 3, 1, 2, 4, 40);
+
+        Stats result = totals.accumulate(game);
+
+        assertSame(totals, result);
+        assertEquals(new Stats(30, 15, 10, 4, 3, 5, 6, 70), totals);
+        assertEquals(20, game.getPoints());
+    }
+
+    @Test
+    void testAverageOver() {
+        Stats totals = new Stats(30, 15, 10, 4, 3, 5, 6, 70);
+
+        Stats average = totals.averageOver(2);
+
+        assertNotSame(totals, average);
+        assertEquals(new Stats(15, 7.5, 5, 2, 1.5, 2.5, 3, 35), average);
+        assertEquals(30, totals.getPoints());
+    }
+
+    @Test
+    void testAverageOverZeroGames() {
+        Stats totals = new Stats();
+
+        assertEquals(new Stats(), totals.averageOver(0));
+    }
+}
@@ -0,0 +1,95 @@
+package com.kanevsky.stats.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class StripedAverageCalculatorTest {
+
+    @Test
+    void testInitialState() {
+        StripedAverageCalculator calculator = new StripedAverageCalculator();
+        Stats average = calculator.getAverage();
+
+        assertEquals(new Stats(), average);
+    }
+
+    @Test
+    void testAddMultipleGameStats() {
+        StripedAverageCalculator calculator = new StripedAverageCalculator();
+
+        calculator.accept(new Stats(20, 10, 5, 2, 1, 3, 2, 36));
+        calculator.accept(new Stats(10, 5, 3, 1, 0, 2, 1, 24));
+
+        Stats average = calculator.getAverage();
+
+        assertEquals(15, average.getPoints());
+        assertEquals(7.5, average.getRebounds());
+        assertEquals(4, average.getAssists());
+        assertEquals(1.5, average.getSteals());
+        assertEquals(0.5, average.getBlocks());
+        assertEquals(2.5, average.getFouls());
+        assertEquals(1.5, average.getTurnovers());
+        assertEquals(30, average.getMinutesPlayed());
+    }
+
+    @Test
+    void testAverageMatchesLockingCalculator() {
+        StripedAverageCalculator striped = new StripedAverageCalculator();
+        AverageCalculator locking = new AverageCalculator();
+
+        Stats[] games = {
+                new Stats(30, 15, 10, 5, 2, 4, 3, 40),
+                new Stats(20, 10, 5, 2, 1, 2, 2, 30),
+                new Stats(10, 5, 0, 0, 0, 0, 1, 20)
+        };
+        for (Stats game : games) {
+            striped.accept(game);
+            locking.accept(game);
+        }
+
+        Stats expected = locking.getAverage();
+        Stats actual = striped.getAverage();
+
+        assertEquals(expected.getPoints(), actual.getPoints(), 0.0001);
+        assertEquals(expected.getSteals(), actual.getSteals(), 0.0001);
+        assertEquals(expected.getMinutesPlayed(), actual.getMinutesPlayed(), 0.0001);
+    }
+
+    @Test
+    void testConcurrentAccess() throws InterruptedException {
+        final int numThreads = 10;
+        final int numGamesPerThread = 1000;
+        final StripedAverageCalculator calculator = new StripedAverageCalculator();
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        CountDownLatch latch = new CountDownLatch(numThreads);
+
+        for (int i = 0; i < numThreads; i++) {
+            final int points = i % 2 == 0 ? 10 : 20;
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < numGamesPerThread; j++) {
+                        calculator.accept(new Stats(points, 5, 3, 1, 2, 3, 2, 30));
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS), "Timed out waiting for threads to complete");
+        executor.shutdown();
+
+        Stats average = calculator.getAverage();
+
+        assertEquals(15, average.getPoints(), 0.00001);
+        assertEquals(5, average.getRebounds(), 0.00001);
+        assertEquals(30, average.getMinutesPlayed(), 0.00001);
+    }
+}
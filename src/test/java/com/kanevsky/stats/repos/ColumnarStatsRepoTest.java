@@ -0,0 +1,99 @@
+package com.kanevsky.stats.repos;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.kanevsky.stats.model.Stats;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class ColumnarStatsRepoTest {
+
+    @Test
+    void testAcceptMultipleStats() {
+        ColumnarStatsRepo repo = new ColumnarStatsRepo();
+        String key = "player1";
+
+        repo.accept(key, new Stats(10, 5, 3, 1, 2, 3, 2, 30));
+        repo.accept(key, new Stats(20, 10, 6, 2, 4, 1, 1, 36));
+
+        Stats result = repo.getStats(key);
+
+        assertNotNull(result);
+        assertEquals(new Stats(15, 7.5, 4.5, 1.5, 3, 2, 1.5, 33), result);
+    }
+
+    @Test
+    void testGetStatsNonExistentKey() {
+        ColumnarStatsRepo repo = new ColumnarStatsRepo();
+
+        assertNull(repo.getStats("nonexistent"));
+        assertNull(repo.getStats(0));
+        assertNull(repo.getStats(1_000_000));
+    }
+
+    @Test
+    void testRegisteredIdWithoutStats() {
+        ColumnarStatsRepo repo = new ColumnarStatsRepo();
+
+        int id = repo.register("player1");
+
+        assertNull(repo.getStats(id));
+    }
+
+    @Test
+    void testManyKeysAcrossChunks() {
+        ColumnarStatsRepo repo = new ColumnarStatsRepo();
+
+        for (int i = 0; i < 10_000; i++) {
+            repo.accept("player" + i, new Stats(i, 0, 0, 0, 0, 0, 0, i % 48));
+        }
+
+        assertEquals(9999, repo.getStats("player9999").getPoints());
+        assertEquals(4096, repo.getStats(4096).getPoints());
+        assertEquals(4096 % 48, repo.getStats(4096).getMinutesPlayed());
+    }
+
+    @Test
+    void testConcurrentAccess() throws InterruptedException {
+        final ColumnarStatsRepo repo = new ColumnarStatsRepo();
+        final int numThreads = 10;
+        final int numUpdatesPerThread = 1000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        CountDownLatch latch = new CountDownLatch(numThreads);
+
+        for (int i = 0; i < numThreads; i++) {
+            final int points = i % 2 == 0 ? 10 : 20;
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < numUpdatesPerThread; j++) {
+                        repo.accept("player1", new Stats(points, 5, 3, 1, 2, 3, 2, 30));
+                        repo.accept("player" + j, new Stats(points, 5, 3, 1, 2, 3, 2, 30));
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS), "Timed out waiting for threads to complete");
+        executor.shutdown();
+
+        assertEquals(15, repo.getStats("player500").getPoints(), 0.000001);
+        assertEquals(30, repo.getStats("player500").getMinutesPlayed(), 0.000001);
+        assertEquals(1000, repo.getDictionary().size());
+    }
+
+    @Test
+    void testNullKey() {
+        ColumnarStatsRepo repo = new ColumnarStatsRepo();
+
+        assertThrows(NullPointerException.class, () -> repo.accept((String) null, new Stats()));
+        assertThrows(NullPointerException.class, () -> repo.getStats((String) null));
+    }
+}
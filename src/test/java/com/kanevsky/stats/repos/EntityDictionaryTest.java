@@ -0,0 +1,89 @@
+package com.kanevsky.stats.repos;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class EntityDictionaryTest {
+
+    @Test
+    void testInternAssignsDenseIds() {
+        EntityDictionary dictionary = new EntityDictionary();
+
+        assertEquals(0, dictionary.intern("Lakers"));
+        assertEquals(1, dictionary.intern("Celtics"));
+        assertEquals(0, dictionary.intern("Lakers"));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void testLookupAndReverseLookup() {
+        EntityDictionary dictionary = new EntityDictionary();
+        int id = dictionary.intern("LeBron James");
+
+        assertEquals(id, dictionary.lookup("LeBron James"));
+        assertEquals("LeBron James", dictionary.nameOf(id));
+        assertEquals(EntityDictionary.NOT_FOUND, dictionary.lookup("Unknown"));
+        assertNull(dictionary.nameOf(id + 1));
+        assertNull(dictionary.nameOf(-1));
+    }
+
+    @Test
+    void testGrowsBeyondInitialCapacity() {
+        EntityDictionary dictionary = new EntityDictionary();
+
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i, dictionary.intern("player" + i));
+        }
+
+        assertEquals(5000, dictionary.size());
+        assertEquals("player4321", dictionary.nameOf(4321));
+    }
+
+    @Test
+    void testConcurrentInternAssignsEachNameOnce() throws InterruptedException {
+        final EntityDictionary dictionary = new EntityDictionary();
+        final int numThreads = 8;
+        final int numNames = 2000;
+        final Set<Integer> seenIds = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        CountDownLatch latch = new CountDownLatch(numThreads);
+
+        for (int i = 0; i < numThreads; i++) {
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < numNames; j++) {
+                        seenIds.add(dictionary.intern("player" + j));
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS), "Timed out waiting for threads to complete");
+        executor.shutdown();
+
+        assertEquals(numNames, dictionary.size());
+        assertEquals(numNames, seenIds.size());
+        for (int j = 0; j < numNames; j++) {
+            assertEquals("player" + j, dictionary.nameOf(dictionary.lookup("player" + j)));
+        }
+    }
+
+    @Test
+    void testNullName() {
+        EntityDictionary dictionary = new EntityDictionary();
+
+        assertThrows(NullPointerException.class, () -> dictionary.intern(null));
+        assertThrows(NullPointerException.class, () -> dictionary.lookup(null));
+    }
+}
@@ -0,0 +1,114 @@
+package com.kanevsky.stats.repos;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameDedupIndexTest {
+
+    @Test
+    void testRepeatedLineIsDuplicate() {
+        GameDedupIndex index = new GameDedupIndex();
+
+        assertTrue(index.firstSeen("g1", "LeBron James"));
+        assertTrue(index.firstSeen("g1", "Anthony Davis"));
+        assertTrue(index.firstSeen("g2", "LeBron James"));
+        assertFalse(index.firstSeen("g1", "LeBron James"));
+
+        assertEquals(1, index.getDuplicates());
+        assertEquals(2, index.getActiveGames());
+    }
+
+    @Test
+    void testForgottenLineAcceptedAgain() {
+        GameDedupIndex index = new GameDedupIndex();
+        index.firstSeen("g1", "p1");
+
+        index.forget("g1", "p1");
+
+        assertTrue(index.firstSeen("g1", "p1"));
+        assertFalse(index.firstSeen("g1", "p1"));
+    }
+
+    @Test
+    void testRestoredIndexKeepsActiveAndRetiredLines() throws IOException {
+        GameDedupIndex index = new GameDedupIndex(8, 10_000, 1e-9);
+        for (int game = 0; game < 20; game++) {
+            index.firstSeen("game" + game, "p1");
+        }
+        index.firstSeen("game19", "p2");
+        index.forget("game19", "p2");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+
+        GameDedupIndex restored = new GameDedupIndex(8, 10_000, 1e-9);
+        restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(index.getActiveGames(), restored.getActiveGames());
+        for (int game = 0; game < 20; game++) {
+            assertFalse(restored.firstSeen("game" + game, "p1"));
+        }
+        assertTrue(restored.firstSeen("game19", "p2"));
+    }
+
+    @Test
+    void testRetiredGamesStillDeduplicated() {
+        GameDedupIndex index = new GameDedupIndex(8, 10_000, 1e-9);
+        for (int game = 0; game < 100; game++) {
+            for (int player = 0; player < 40; player++) {
+                assertTrue(index.firstSeen("game" + game, "player" + player));
+            }
+        }
+
+        assertTrue(index.getActiveGames() <= 8);
+        assertTrue(index.getRetiredGames() >= 92);
+        for (int game = 0; game < 100; game++) {
+            for (int player = 0; player < 40; player++) {
+                assertFalse(index.firstSeen("game" + game, "player" + player), "game" + game + "/player" + player);
+            }
+            // A late line of a retired game is still new.
+            assertTrue(index.firstSeen("game" + game, "late"));
+        }
+        assertEquals(4000, index.getDuplicates());
+    }
+
+    @Test
+    void testConcurrentRetriesAcceptedOnce() throws Exception {
+        GameDedupIndex index = new GameDedupIndex(4, 100_000, 1e-9);
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                int accepted = 0;
+                for (int game = 0; game < 50; game++) {
+                    for (int player = 0; player < 30; player++) {
+                        if (index.firstSeen("game" + game, "player" + player)) {
+                            accepted++;
+                        }
+                    }
+                }
+                return accepted;
+            }));
+        }
+        int accepted = 0;
+        for (Future<Integer> future : futures) {
+            accepted += future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(50 * 30, accepted);
+        assertEquals((threads - 1) * 50 * 30, index.getDuplicates());
+    }
+}
@@ -0,0 +1,157 @@
+package com.kanevsky.stats.repos;
+
+import com.kanevsky.stats.model.Stats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedWriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testLinesRoundTrip() throws IOException {
+        try (MappedWriteAheadLog wal = new MappedWriteAheadLog(directory, 1 << 16, WalDurability.NONE, 0)) {
+            long position = wal.append(
+                    new String[]{"Nikola Jokić", "skipped", "Jamal Murray"},
+                    new String[]{"Nuggets", "Nuggets", "Nuggets"},
+                    new Stats[]{stats(30), null, stats(22)});
+
+            assertEquals(position, wal.position());
+        }
+
+        List<String> lines = readLines();
+        assertEquals(List.of("Nikola Jokić/Nuggets/30.0", "Jamal Murray/Nuggets/22.0"), lines);
+    }
+
+    @Test
+    void testLinesWithBlankNamesSkipped() throws IOException {
+        try (MappedWriteAheadLog wal = new MappedWriteAheadLog(directory, 1 << 16, WalDurability.NONE, 0)) {
+            wal.append(new String[]{"", "p2", " "}, new String[]{"t1", "  ", "t1"},
+                    new Stats[]{stats(1), stats(2), stats(3)});
+        }
+
+        assertEquals(List.of(), readLines());
+    }
+
+    @Test
+    void testGameIdsRoundTrip() throws IOException {
+        try (MappedWriteAheadLog wal = new MappedWriteAheadLog(directory, 1 << 16, WalDurability.NONE, 0)) {
+            wal.append(new String[]{"g1", null}, names2("p1", "p2"), names2("t1", "t1"),
+                    new Stats[]{stats(1), stats(2)}, new boolean[]{false, true});
+        }
+
+        assertEquals(List.of("g1:p1/t1/1.0", "-p2/t1/2.0"), readLines());
+    }
+
+    @Test
+    void testRollbacksRoundTrip() throws IOException {
+        try (MappedWriteAheadLog wal = new MappedWriteAheadLog(directory, 1 << 16, WalDurability.NONE, 0)) {
+            wal.rollBack(new String[]{"g1", null}, names2("p1", "p2"), names2("t1", "t1"),
+                    new Stats[]{stats(1), stats(2)});
+        }
+
+        assertEquals(List.of("~g1:p1/t1/1.0", "-p2/t1/2.0"), readLines());
+    }
+
+    @Test
+    void testOneForceCoversEveryEarlierBatch() throws IOException {
+        try (MappedWriteAheadLog wal = new MappedWriteAheadLog(directory, 1 << 16, WalDurability.SYNC, 0)) {
+            long first = wal.append(names("p1"), names("t1"), new Stats[]{stats(1)});
+            long second = wal.append(names("p2"), names("t1"), new Stats[]{stats(2)});
+            long third = wal.append(names("p3"), names("t1"), new Stats[]{stats(3)});
+            assertTrue(first < second && second < third);
+
+            wal.commit(third);
+            wal.commit(first);
+            wal.commit(second);
+
+            assertEquals(1, wal.getSyncCount());
+            assertEquals(third, wal.getSyncedPosition());
+        }
+    }
+
+    @Test
+    void testConcurrentCommitsAreDurableAndComplete() throws Exception {
+        int threads = 8;
+        int batchesPerThread = 50;
+        MappedWriteAheadLog wal = new MappedWriteAheadLog(directory, 1 << 12, WalDurability.SYNC, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String player = "player" + t;
+            futures.add(executor.submit(() -> {
+                for (int batch = 0; batch < batchesPerThread; batch++) {
+                    long position = wal.append(names(player), names("team"), new Stats[]{stats(batch)});
+                    wal.commit(position);
+                    assertTrue(wal.getSyncedPosition() >= position);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        wal.close();
+
+        assertTrue(wal.getSyncCount() <= threads * batchesPerThread);
+        assertEquals(threads * batchesPerThread, readLines().size());
+        assertTrue(MappedWriteAheadLog.segments(directory).size() > 1);
+    }
+
+    @Test
+    void testReopenStartsAfterExistingSegments() throws IOException {
+        long firstEnd;
+        try (MappedWriteAheadLog wal = new MappedWriteAheadLog(directory, 1 << 12, WalDurability.ASYNC, 10)) {
+            firstEnd = wal.append(names("p1"), names("t1"), new Stats[]{stats(1)});
+        }
+        try (MappedWriteAheadLog wal = new MappedWriteAheadLog(directory, 1 << 12, WalDurability.ASYNC, 10)) {
+            long position = wal.append(names("p2"), names("t1"), new Stats[]{stats(2)});
+
+            assertTrue(position > firstEnd);
+        }
+
+        assertEquals(List.of(0L, 4096L), MappedWriteAheadLog.segments(directory).stream()
+                .map(MappedWriteAheadLog::baseOf).toList());
+        assertEquals(List.of("p1/t1/1.0", "p2/t1/2.0"), readLines());
+    }
+
+    private List<String> readLines() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (Path segment : MappedWriteAheadLog.segments(directory)) {
+            try (FileChannel channel = FileChannel.open(segment)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                while (WalCodec.decode(buffer, (gameId, player, team, stats, retraction, rollback) ->
+                        lines.add((rollback ? "~" : retraction ? "-" : "") + (gameId == null ? "" : gameId + ":") + player + "/" + team
+                                + "/" + stats.getPoints()))) {
+                    // decode advances the buffer
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static String[] names(String name) {
+        return new String[]{name};
+    }
+
+    private static String[] names2(String first, String second) {
+        return new String[]{first, second};
+    }
+
+    private static Stats stats(double points) {
+        return new Stats(points, 5, 3, 1, 0, 2, 1, 30);
+    }
+}
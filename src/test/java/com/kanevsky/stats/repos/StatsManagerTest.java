@@ -11,6 +11,8 @@ import org.mockito.MockitoAnnotations;
 
 import com.kanevsky.stats.model.Stats;
 
+import java.util.concurrent.RejectedExecutionException;
+
 class StatsManagerTest {
 
     @Mock
@@ -92,6 +94,40 @@ class StatsManagerTest {
         assertEquals(10, getResult.getPoints());
     }
 
+    @Test
+    void testFailingListenerDoesNotFailAppliedSubmit() {
+        StatsRepo realRepo = new StatsRepo();
+        StatsManager realManager = new StatsManager(realRepo);
+        realManager.setChangeListener(name -> {
+            throw new RejectedExecutionException("Hub stopped");
+        });
+        Stats stats = new Stats(10, 5, 3, 1, 2, 3, 2, 30);
+
+        assertTrue(realManager.submit(stats, "testPlayer"));
+        assertTrue(realManager.submit(stats, realManager.register("testPlayer")));
+        assertTrue(realManager.merge(stats, 1, "testPlayer"));
+        assertTrue(realManager.retract(stats, "testPlayer"));
+
+        assertEquals(2, realManager.getGames("testPlayer"));
+        assertEquals(10, realManager.getStats("testPlayer").getPoints());
+    }
+
+    @Test
+    void testRetractionLeavingNegativeTotalRejected() {
+        StatsManager realManager = new StatsManager(new StatsRepo());
+        realManager.submit(new Stats(10, 5, 3, 1, 2, 3, 2, 30.1), "testPlayer");
+        realManager.submit(new Stats(20, 5, 3, 1, 2, 3, 2, 30.2), "testPlayer");
+
+        assertFalse(realManager.retract(new Stats(31, 0, 0, 0, 0, 0, 0, 0), "testPlayer"));
+        assertFalse(realManager.retract(new Stats(0, 11, 0, 0, 0, 0, 0, 0), "testPlayer"));
+        assertFalse(realManager.retract(new Stats(10, 5, 3, 1, 2, 3, 2, 30.1), "unknownPlayer"));
+        assertEquals(2, realManager.getGames("testPlayer"));
+
+        assertTrue(realManager.retract(new Stats(10, 5, 3, 1, 2, 3, 2, 30.1), "testPlayer"));
+        assertTrue(realManager.retract(new Stats(20, 5, 3, 1, 2, 3, 2, 30.2), "testPlayer"));
+        assertEquals(0, realManager.getGames("testPlayer"));
+    }
+
     @Test
     void testNullName() {
         Stats stats = new Stats(10, 5, 3, 1, 2, 3, 2, 30);
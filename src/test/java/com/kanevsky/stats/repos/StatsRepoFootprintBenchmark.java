@@ -0,0 +1,63 @@
+package com.kanevsky.stats.repos;
+
+import com.kanevsky.stats.model.AverageCalculator;
+import com.kanevsky.stats.model.Stats;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.function.Supplier;
+
+/**
+ * Retained heap of each store layout after one game line per entity ({@code OFF_HEAP} should stay
+ * near zero, its records live in direct memory). Names are pre-built and
+ * interned into a shared dictionary before measuring, so the figures cover the aggregates only.
+ * <p>
+ * Usage: {@code java -Xmx16g -cp ... com.kanevsky.stats.repos.StatsRepoFootprintBenchmark [sizes...]}
+ * (default sizes: 10000 1000000 10000000).
+ */
+public class StatsRepoFootprintBenchmark {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0
+                ? java.util.Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[]{10_000, 1_000_000, 10_000_000};
+
+        System.out.printf("%-12s %12s %16s %12s%n", "store", "entities", "retained bytes", "bytes/entity");
+        for (int size : sizes) {
+            EntityDictionary dictionary = new EntityDictionary();
+            for (int id = 0; id < size; id++) {
+                dictionary.intern("player" + id);
+            }
+
+            measure("CALCULATOR", size, () -> new StatsRepo(dictionary, AverageCalculator::new));
+            measure("COLUMNAR", size, () -> new ColumnarStatsRepo(dictionary));
+            measure("OFF_HEAP", size, () -> new OffHeapStatsRepo(dictionary));
+        }
+    }
+
+    private static void measure(String label, int size, Supplier<IStatsRepo> storeFactory) {
+        Stats gameStats = new Stats(28, 7, 8, 1, 1, 2, 3, 36.5);
+
+        long before = usedHeap();
+        IStatsRepo store = storeFactory.get();
+        for (int id = 0; id < size; id++) {
+            store.accept(id, gameStats);
+        }
+        long retained = usedHeap() - before;
+
+        System.out.printf("%-12s %12d %16d %12.1f%n", label, size, retained, (double) retained / size);
+        // Keep the store reachable until after the measurement.
+        if (store.getStats(size - 1) == null) {
+            throw new IllegalStateException("Store lost entity " + (size - 1));
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
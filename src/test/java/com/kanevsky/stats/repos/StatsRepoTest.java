@@ -186,4 +186,40 @@ class StatsRepoTest {
         assertThrows(NullPointerException.class, () -> repo.accept(key, stats));
         assertThrows(NullPointerException.class, () -> repo.getStats(key));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testIdBasedAccess() {
+        StatsRepo repo = new StatsRepo();
+
+        int id = repo.register("player1");
+        repo.accept(id, new Stats(10, 5, 3, 1, 2, 3, 2, 30));
+        repo.accept("player1", new Stats(20, 10, 6, 2, 4, 1, 1, 36));
+
+        assertEquals(id, repo.getDictionary().lookup("player1"));
+        assertEquals(15, repo.getStats(id).getPoints());
+        assertEquals(repo.getStats("player1"), repo.getStats(id));
+    }
+
+    @Test
+    void testRegisteredIdWithoutStats() {
+        StatsRepo repo = new StatsRepo();
+
+        int id = repo.register("player1");
+
+        assertNull(repo.getStats(id));
+        assertNull(repo.getStats("player1"));
+        assertNull(repo.getStats(id + 5000));
+    }
+
+    @Test
+    void testManyKeysAcrossChunks() {
+        StatsRepo repo = new StatsRepo();
+
+        for (int i = 0; i < 3000; i++) {
+            repo.accept("player" + i, new Stats(i, 0, 0, 0, 0, 0, 0, 0));
+        }
+
+        assertEquals(2999, repo.getStats("player2999").getPoints());
+        assertEquals(1024, repo.getStats(1024).getPoints());
+    }
+}
@@ -0,0 +1,103 @@
+package com.kanevsky.stats.repos;
+
+import com.kanevsky.stats.model.Stats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsSnapshotsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRoundTripAcrossStoreLayouts() throws IOException {
+        StatsRepo players = new StatsRepo();
+        OffHeapStatsRepo teams = new OffHeapStatsRepo();
+        players.accept("Stephen Curry", new Stats(30, 5, 6, 1, 0, 2, 3, 34));
+        players.accept("Stephen Curry", new Stats(20, 3, 8, 2, 0, 1, 2, 32));
+        players.register("Registered Only");
+        players.accept("Draymond Green", new Stats(8, 9, 7, 1, 1, 4, 3, 30));
+        teams.accept("Warriors", new Stats(110, 44, 28, 8, 5, 20, 14, 240));
+        Path file = directory.resolve("stats.snap");
+        AtomicBoolean recordsDone = new AtomicBoolean();
+
+        StatsSnapshots.Summary written = StatsSnapshots.write(file, 1234, players, teams, () -> recordsDone.set(true));
+
+        assertTrue(recordsDone.get());
+        assertEquals(1234, StatsSnapshots.walPositionOf(file));
+
+        ColumnarStatsRepo restoredPlayers = new ColumnarStatsRepo();
+        StatsRepo restoredTeams = new StatsRepo();
+        StatsSnapshots.Summary restored = StatsSnapshots.restore(file, restoredPlayers, restoredTeams);
+
+        assertEquals(written, restored);
+        assertEquals(3, restored.getPlayers());
+        assertEquals(players.getStats("Stephen Curry"), restoredPlayers.getStats("Stephen Curry"));
+        assertEquals(players.getStats("Draymond Green"), restoredPlayers.getStats("Draymond Green"));
+        assertNull(restoredPlayers.getStats("Registered Only"));
+        assertEquals(1, restoredPlayers.getDictionary().lookup("Registered Only"));
+        assertEquals(teams.getStats("Warriors"), restoredTeams.getStats("Warriors"));
+
+        Stats totals = new Stats();
+        assertEquals(2, restoredPlayers.addTotalsTo(restoredPlayers.getDictionary().lookup("Stephen Curry"), totals));
+        assertEquals(50, totals.getPoints());
+    }
+
+    @Test
+    void testDedupIndexRoundTrip() throws IOException {
+        GameDedupIndex index = new GameDedupIndex();
+        index.firstSeen("g1", "p1");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        Path file = directory.resolve("stats.snap");
+        StatsSnapshots.write(file, 0, new StatsRepo(), new StatsRepo(), bytes.toByteArray(), () -> {
+        });
+
+        GameDedupIndex restored = new GameDedupIndex();
+        StatsSnapshots.restore(file, new StatsRepo(), new StatsRepo(), restored);
+
+        assertFalse(restored.firstSeen("g1", "p1"));
+        assertTrue(restored.firstSeen("g1", "p2"));
+    }
+
+    @Test
+    void testCorruptSnapshotRejectedBeforeRestoring() throws IOException {
+        StatsRepo players = new StatsRepo();
+        players.accept("p1", new Stats(10, 1, 1, 1, 1, 1, 1, 10));
+        Path file = directory.resolve("stats.snap");
+        StatsSnapshots.write(file, 0, players, new StatsRepo(), () -> {
+        });
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), StatsSnapshots.HEADER_BYTES + 3);
+        }
+
+        StatsRepo restoredPlayers = new StatsRepo();
+        IOException exception = assertThrows(IOException.class,
+                () -> StatsSnapshots.restore(file, restoredPlayers, new StatsRepo()));
+
+        assertTrue(exception.getMessage().contains("checksum"));
+        assertEquals(0, restoredPlayers.getDictionary().size());
+    }
+
+    @Test
+    void testRestoreRequiresEmptyRepos() throws IOException {
+        Path file = directory.resolve("stats.snap");
+        StatsSnapshots.write(file, 0, new StatsRepo(), new StatsRepo(), () -> {
+        });
+        StatsRepo players = new StatsRepo();
+        players.register("p1");
+
+        assertThrows(IllegalStateException.class, () -> StatsSnapshots.restore(file, players, new StatsRepo()));
+    }
+}
@@ -0,0 +1,174 @@
+package com.kanevsky.stats.repos;
+
+import com.kanevsky.stats.model.Stats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalReplayTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testParallelReplayMatchesSequentialApplication() throws IOException {
+        ColumnarStatsRepo expectedPlayers = new ColumnarStatsRepo();
+        ColumnarStatsRepo expectedTeams = new ColumnarStatsRepo();
+        long from;
+        long to;
+        try (MappedWriteAheadLog wal = new MappedWriteAheadLog(directory, 1 << 12, WalDurability.NONE, 0)) {
+            from = appendBatches(wal, 0, 40, null, null);
+            to = appendBatches(wal, 40, 400, expectedPlayers, expectedTeams);
+            appendBatches(wal, 400, 420, null, null);
+        }
+        assertTrue(MappedWriteAheadLog.segments(directory).size() > 3);
+
+        ColumnarStatsRepo players = new ColumnarStatsRepo();
+        ColumnarStatsRepo teams = new ColumnarStatsRepo();
+        // Small enough chunks that most segments are split, decoded on more threads than there are segments.
+        WalReplay.Summary summary = WalReplay.replay(directory, from, to, 16, 1, players, teams);
+
+        assertEquals(720, summary.getLines());
+        assertTrue(summary.getChunks() > summary.getSegments());
+        assertSameTotals(expectedPlayers, players);
+        assertSameTotals(expectedTeams, teams);
+    }
+
+    @Test
+    void testSegmentReplayedUpToCorruptRecord() throws IOException {
+        long firstSegmentEnd;
+        try (MappedWriteAheadLog wal = new MappedWriteAheadLog(directory, 1 << 12, WalDurability.NONE, 0)) {
+            wal.append(new String[]{"p1"}, new String[]{"t1"}, new Stats[]{stats(1)});
+            wal.append(new String[]{"p1"}, new String[]{"t1"}, new Stats[]{stats(2)});
+            firstSegmentEnd = wal.append(new String[]{"p1"}, new String[]{"t1"}, new Stats[]{stats(4)});
+        }
+        try (MappedWriteAheadLog wal = new MappedWriteAheadLog(directory, 1 << 12, WalDurability.NONE, 0)) {
+            wal.append(new String[]{"p2"}, new String[]{"t1"}, new Stats[]{stats(8)});
+        }
+        // Flip a byte in the payload of the second record of the first segment.
+        int recordBytes = (int) firstSegmentEnd / 3;
+        try (FileChannel channel = FileChannel.open(MappedWriteAheadLog.segments(directory).get(0),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), recordBytes + WalCodec.HEADER_BYTES + 6);
+        }
+
+        StatsRepo players = new StatsRepo();
+        StatsRepo teams = new StatsRepo();
+        WalReplay.Summary summary = WalReplay.replay(directory, 0, Long.MAX_VALUE, 2, 1, players, teams);
+
+        assertEquals(2, summary.getLines());
+        assertEquals(1, players.getStats("p1").getPoints());
+        assertEquals(8, players.getStats("p2").getPoints());
+        assertEquals(4.5, teams.getStats("t1").getPoints());
+    }
+
+    @Test
+    void testRetractionsAreSubtracted() throws IOException {
+        try (MappedWriteAheadLog wal = new MappedWriteAheadLog(directory, 1 << 12, WalDurability.NONE, 0)) {
+            wal.append(new String[]{"p1", "p2"}, new String[]{"t1", "t1"}, new Stats[]{stats(10), stats(4)});
+            wal.append(null, new String[]{"p1", "p1"}, new String[]{"t1", "t1"}, new Stats[]{stats(10), stats(12)},
+                    new boolean[]{true, false});
+            wal.append(null, new String[]{"p2"}, new String[]{"t1"}, new Stats[]{stats(4)}, new boolean[]{true});
+        }
+
+        StatsRepo players = new StatsRepo();
+        StatsRepo teams = new StatsRepo();
+        WalReplay.replay(directory, 0, Long.MAX_VALUE, 2, 1, players, teams);
+
+        assertEquals(12, players.getStats("p1").getPoints());
+        assertNull(players.getStats("p2"));
+        assertEquals(1, teams.addTotalsTo(teams.getDictionary().lookup("t1"), new Stats()));
+        assertEquals(12, teams.getStats("t1").getPoints());
+    }
+
+    @Test
+    void testGameIdsRebuildDedupIndex() throws IOException {
+        try (MappedWriteAheadLog wal = new MappedWriteAheadLog(directory, 1 << 12, WalDurability.NONE, 0)) {
+            wal.append(new String[]{"g1", "g1", null}, new String[]{"p1", "p2", "p3"},
+                    new String[]{"t1", "t1", "t1"}, new Stats[]{stats(1), stats(2), stats(3)}, null);
+        }
+
+        GameDedupIndex dedupIndex = new GameDedupIndex();
+        WalReplay.replay(directory, 0, Long.MAX_VALUE, 2, 1, new StatsRepo(), new StatsRepo(), dedupIndex);
+
+        assertFalse(dedupIndex.firstSeen("g1", "p1"));
+        assertFalse(dedupIndex.firstSeen("g1", "p2"));
+        assertTrue(dedupIndex.firstSeen("g1", "p3"));
+        assertEquals(2, dedupIndex.getDuplicates());
+    }
+
+    @Test
+    void testRolledBackLinesNeitherCountedNorSeen() throws IOException {
+        try (MappedWriteAheadLog wal = new MappedWriteAheadLog(directory, 1 << 12, WalDurability.NONE, 0)) {
+            wal.append(new String[]{"g1", "g1", null}, new String[]{"p1", "p2", "p3"},
+                    new String[]{"t1", "t1", "t1"}, new Stats[]{stats(1), stats(2), stats(3)}, null);
+            wal.rollBack(new String[]{"g1", null}, new String[]{"p2", "p3"}, new String[]{"t1", "t1"},
+                    new Stats[]{stats(2), stats(3)});
+        }
+
+        StatsRepo players = new StatsRepo();
+        StatsRepo teams = new StatsRepo();
+        GameDedupIndex dedupIndex = new GameDedupIndex();
+        WalReplay.replay(directory, 0, Long.MAX_VALUE, 2, 1, players, teams, dedupIndex);
+
+        assertEquals(1, players.getStats("p1").getPoints());
+        assertNull(players.getStats("p2"));
+        assertNull(players.getStats("p3"));
+        assertEquals(1, teams.getStats("t1").getPoints());
+        assertFalse(dedupIndex.firstSeen("g1", "p1"));
+        assertTrue(dedupIndex.firstSeen("g1", "p2"));
+    }
+
+    @Test
+    void testMissingDirectoryReplaysNothing() throws IOException {
+        StatsRepo players = new StatsRepo();
+
+        WalReplay.Summary summary = WalReplay.replay(directory.resolve("missing"), 0, 100, 2, players, new StatsRepo());
+
+        assertEquals(0, summary.getLines());
+        assertEquals(0, players.getDictionary().size());
+    }
+
+    // Appends one batch of two lines per index; returns the position after the last.
+    private static long appendBatches(MappedWriteAheadLog wal, int first, int last, IStatsRepo players,
+                                      IStatsRepo teams) {
+        long position = wal.position();
+        for (int i = first; i < last; i++) {
+            String[] playerNames = {"player" + i % 37, "player" + (i + 11) % 37};
+            String[] teamNames = {"team" + i % 5, "team" + (i + 2) % 5};
+            Stats[] stats = {stats(i % 50), stats(i % 23 + 0.5)};
+            position = wal.append(playerNames, teamNames, stats);
+            if (players != null) {
+                for (int line = 0; line < stats.length; line++) {
+                    players.accept(playerNames[line], stats[line]);
+                    teams.accept(teamNames[line], stats[line]);
+                }
+            }
+        }
+        return position;
+    }
+
+    private static void assertSameTotals(IStatsRepo expected, IStatsRepo actual) {
+        assertEquals(expected.getDictionary().size(), actual.getDictionary().size());
+        for (int id = 0; id < expected.getDictionary().size(); id++) {
+            String name = expected.getDictionary().nameOf(id);
+            Stats expectedTotals = new Stats();
+            Stats actualTotals = new Stats();
+            int actualId = actual.getDictionary().lookup(name);
+            assertEquals(expected.addTotalsTo(id, expectedTotals), actual.addTotalsTo(actualId, actualTotals), name);
+            assertEquals(expectedTotals.getPoints(), actualTotals.getPoints(), 1e-9, name);
+            assertEquals(expectedTotals.getMinutesPlayed(), actualTotals.getMinutesPlayed(), 1e-9, name);
+        }
+    }
+
+    private static Stats stats(double points) {
+        return new Stats(points, 5, 3, 1, 0, 2, 1, 30);
+    }
+}
@@ -0,0 +1,153 @@
+package com.kanevsky.stats.service;
+
+import com.kanevsky.stats.dto.IngestResultDto;
+import com.kanevsky.stats.exceptions.IngestException;
+import com.kanevsky.stats.model.Stats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CsvImportServiceTest {
+
+    @Mock
+    private IIngestService ingestService;
+
+    private final CsvImportService csvImportService = new CsvImportService();
+
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    private final Map<String, Stats> applied = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(csvImportService, "ingestService", ingestService);
+        ReflectionTestUtils.setField(csvImportService, "batchSize", 2);
+        when(ingestService.processBatch(any(), any(), any())).thenAnswer(invocation -> {
+            String[] playerNames = invocation.getArgument(0);
+            Stats[] stats = invocation.getArgument(2);
+            batchSizes.add(stats.length);
+            for (int i = 0; i < stats.length; i++) {
+                applied.put(playerNames[i], stats[i]);
+            }
+            return stats.length;
+        });
+    }
+
+    @Test
+    void testBoxScoreHeadersMappedAndBatched() {
+        String csv = """
+                \uFEFFPlayer,Tm,MP,PTS,TRB,AST,STL,BLK,PF,TOV
+                LeBron James,LAL,35:30,28,8,9,1,1,2,3
+                Anthony Davis,LAL,36,30,12,3,2,3,4,2
+
+                Austin Reaves,LAL,31.5,15,4,5,0,0,1,1
+                """;
+
+        IngestResultDto result = csvImportService.importStream(stream(csv));
+
+        assertEquals(3, result.getReceived());
+        assertEquals(3, result.getSucceeded());
+        assertEquals(0, result.getFailed());
+        assertEquals(List.of(2, 1), batchSizes);
+        assertEquals(new Stats(28, 8, 9, 1, 1, 2, 3, 35.5), applied.get("LeBron James"));
+        assertEquals(31.5, applied.get("Austin Reaves").getMinutesPlayed());
+    }
+
+    @Test
+    void testInvalidRowsSkippedAndReported() {
+        String csv = """
+                playerName,teamName,points,fouls
+                p1,t1,10,2
+                ,t1,10,2
+                p3,t1,ten,2
+                p4,t1,10,7
+                p5,t1,10,6
+                """;
+
+        IngestResultDto result = csvImportService.importStream(stream(csv));
+
+        assertEquals(5, result.getReceived());
+        assertEquals(2, result.getSucceeded());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(1L, 2L, 3L), result.getErrors().stream().map(IngestResultDto.EntryError::getIndex).toList());
+        assertEquals("points: not a whole number: ten", result.getErrors().get(1).getMessage());
+        assertEquals("fouls: out of range: 7", result.getErrors().get(2).getMessage());
+        assertEquals(List.of("p1", "p5"), applied.keySet().stream().sorted().toList());
+    }
+
+    @Test
+    void testColumnOverrides() {
+        ReflectionTestUtils.setField(csvImportService, "columnOverrides", "playerName=Starter; points=Score");
+        String csv = """
+                Starter,Team,Score,Points
+                p1,t1,21,99
+                """;
+
+        csvImportService.importStream(stream(csv));
+
+        assertEquals(21, applied.get("p1").getPoints());
+    }
+
+    @Test
+    void testMissingNameColumnsRejected() {
+        IngestException exception = assertThrows(IngestException.class,
+                () -> csvImportService.importStream(stream("player,pts\np1,10\n")));
+
+        assertTrue(exception.getMessage().contains("player and team columns"));
+        verifyNoInteractions(ingestService);
+    }
+
+    @Test
+    void testFileParsedInChunksWithGlobalRowIndexes(@TempDir Path dir) throws IOException {
+        ReflectionTestUtils.setField(csvImportService, "parallelChunks", 4);
+        ReflectionTestUtils.setField(csvImportService, "minChunkBytes", 1L);
+        StringBuilder csv = new StringBuilder("player,team,pts\n");
+        for (int row = 0; row < 100; row++) {
+            csv.append(row % 25 == 24 ? "" : "p" + row).append(",t").append(row % 3).append(',').append(row).append('\n');
+        }
+        Path file = Files.writeString(dir.resolve("games.csv"), csv);
+
+        IngestResultDto result = csvImportService.importFile(file);
+
+        assertEquals(100, result.getReceived());
+        assertEquals(96, result.getSucceeded());
+        assertEquals(List.of(24L, 49L, 74L, 99L), result.getErrors().stream().map(IngestResultDto.EntryError::getIndex).toList());
+        assertEquals(96, applied.size());
+        assertEquals(57, applied.get("p57").getPoints());
+    }
+
+    @Test
+    void testChunkBoundsFallOnLineStarts(@TempDir Path dir) throws IOException {
+        Path file = Files.writeString(dir.resolve("rows.csv"), "h\naaaa\nbb\ncccccc\nd\n");
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            long[] bounds = CsvImportService.chunkBounds(channel, 2, 3);
+
+            assertArrayEquals(new long[]{2, 10, 17, 19}, bounds);
+        }
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,253 @@
+package com.kanevsky.stats.service;
+
+import com.kanevsky.stats.model.Stats;
+import com.kanevsky.stats.repos.IWriteAheadLog;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestJournalTest {
+
+    private final RecordingLog writeAheadLog = new RecordingLog();
+
+    private final IngestJournal journal = new IngestJournal(writeAheadLog);
+
+    private final List<String> applied = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void testBatchesLoggedAppliedAndCommitted() {
+        int result = ingest("p1", "p2");
+
+        assertEquals(2, result);
+        assertEquals(List.of("p1", "p2"), applied);
+        assertEquals(List.of(2L), writeAheadLog.commits);
+    }
+
+    @Test
+    void testBatchLoggedDuringCaptureAppliedOnceItEnds() throws Exception {
+        ingest("p1");
+
+        long position = journal.beginCapture();
+        CompletableFuture<Integer> batch = CompletableFuture.supplyAsync(() -> ingest("p2"));
+        Thread.sleep(50);
+
+        assertEquals(1, position);
+        assertFalse(batch.isDone());
+        assertEquals(List.of("p1"), applied);
+        assertEquals(2, writeAheadLog.position());
+
+        journal.endCapture();
+
+        assertEquals(1, batch.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("p1", "p2"), applied);
+        assertEquals(List.of(1L, 2L), writeAheadLog.commits);
+        assertEquals(2, journal.beginCapture());
+        journal.endCapture();
+    }
+
+    @Test
+    void testFailedApplyAfterCaptureReportedAndRolledBack() throws Exception {
+        journal.beginCapture();
+        CompletableFuture<Integer> batch = CompletableFuture.supplyAsync(() ->
+                journal.ingest(new String[]{"g1"}, new String[]{"p1"}, new String[]{"team"},
+                        new Stats[]{new Stats()}, rejected -> {
+                            rejected[0] = true;
+                            return 0;
+                        }));
+        Thread.sleep(50);
+        assertFalse(batch.isDone());
+
+        journal.endCapture();
+
+        assertEquals(0, batch.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("p1"), writeAheadLog.rolledBack);
+        assertEquals(1, ingest(new String[]{"g1"}, new String[]{"p1"}));
+        assertEquals(List.of("p1"), applied);
+    }
+
+    @Test
+    void testCaptureWaitsForBatchesAppliedBeforeIt() throws Exception {
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> slowBatch = CompletableFuture.supplyAsync(() ->
+                journal.ingest(new String[]{"slow"}, new String[]{"team"}, new Stats[]{new Stats()}, rejected -> {
+                    applying.countDown();
+                    await(release);
+                    return 1;
+                }));
+        assertTrue(applying.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Long> capture = CompletableFuture.supplyAsync(journal::beginCapture);
+        Thread.sleep(50);
+        assertFalse(capture.isDone());
+
+        release.countDown();
+        assertEquals(1L, capture.get(5, TimeUnit.SECONDS));
+        assertEquals(1, slowBatch.get(5, TimeUnit.SECONDS));
+        journal.endCapture();
+    }
+
+    @Test
+    void testRetriedBatchNeitherLoggedNorApplied() {
+        String[] gameIds = {"g1", "g1", null};
+        String[] playerNames = {"p1", "p2", "p3"};
+
+        assertEquals(3, ingest(gameIds, playerNames));
+        assertEquals(3, ingest(gameIds, playerNames));
+        assertEquals(List.of("p1", "p2", "p3", "p3"), applied);
+        assertEquals(List.of(3L, 6L), writeAheadLog.commits);
+
+        assertEquals(2, ingest(new String[]{"g1", "g1"}, new String[]{"p1", "p2"}));
+        assertEquals(List.of(3L, 6L), writeAheadLog.commits);
+    }
+
+    @Test
+    void testLinesOfFailedAppendAcceptedWhenRetried() {
+        String[] gameIds = {"g1", "g1"};
+        String[] playerNames = {"p1", "p2"};
+        writeAheadLog.failNextAppend = true;
+
+        assertThrows(IllegalStateException.class, () -> ingest(gameIds, playerNames));
+
+        assertEquals(2, ingest(gameIds, playerNames));
+        assertEquals(List.of("p1", "p2"), applied);
+    }
+
+    @Test
+    void testRejectedLinesRolledBackAndAcceptedWhenRetried() {
+        String[] gameIds = {"g1", "g1", null};
+        String[] playerNames = {"p1", "p2", "p3"};
+        Stats[] stats = {new Stats(), new Stats(), new Stats()};
+
+        int result = journal.ingest(gameIds, playerNames, new String[]{"team", "team", "team"}, stats, rejected -> {
+            rejected[1] = true;
+            rejected[2] = true;
+            return 1;
+        });
+
+        assertEquals(1, result);
+        assertEquals(List.of("p2", "p3"), writeAheadLog.rolledBack);
+        assertEquals(List.of(5L, 3L), writeAheadLog.commits);
+        assertEquals(3, ingest(gameIds, playerNames));
+        assertEquals(List.of("p2", "p3"), applied);
+    }
+
+    @Test
+    void testCorrectionWaitsForCaptureToEnd() throws Exception {
+        ingest("p1");
+        journal.beginCapture();
+        CorrectionBatch batch = new CorrectionBatch("fix-1", new String[]{"fix-1"}, new String[]{"p1"},
+                new String[]{"team"}, new Stats[]{new Stats()}, new boolean[]{true});
+        List<Boolean> checks = new ArrayList<>();
+
+        CompletableFuture<CorrectionResult> correction = CompletableFuture.supplyAsync(() ->
+                journal.correct(batch, () -> checks.add(true), () -> {
+                    applied.add("-p1");
+                    return 1;
+                }));
+        Thread.sleep(50);
+        assertFalse(correction.isDone());
+        assertEquals(List.of(), checks);
+
+        journal.endCapture();
+        assertEquals(CorrectionResult.APPLIED, correction.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(true), checks);
+        assertEquals(List.of("p1", "-p1"), applied);
+        assertEquals(CorrectionResult.APPLIED, journal.correct(batch, () -> false, () -> 0));
+    }
+
+    private int ingest(String[] gameIds, String[] playerNames) {
+        String[] teamNames = new String[playerNames.length];
+        Stats[] stats = new Stats[playerNames.length];
+        for (int i = 0; i < stats.length; i++) {
+            teamNames[i] = "team";
+            stats[i] = new Stats();
+        }
+        return journal.ingest(gameIds, playerNames, teamNames, stats, rejected -> {
+            int count = 0;
+            for (int i = 0; i < stats.length; i++) {
+                if (stats[i] != null) {
+                    applied.add(playerNames[i]);
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    private int ingest(String... playerNames) {
+        String[] teamNames = new String[playerNames.length];
+        Stats[] stats = new Stats[playerNames.length];
+        for (int i = 0; i < stats.length; i++) {
+            teamNames[i] = "team";
+            stats[i] = new Stats();
+        }
+        return journal.ingest(playerNames, teamNames, stats, rejected -> {
+            applied.addAll(List.of(playerNames));
+            return playerNames.length;
+        });
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Counts one position per line.
+    private static final class RecordingLog implements IWriteAheadLog {
+        private long position;
+        private final List<Long> commits = new ArrayList<>();
+        private final List<String> rolledBack = new ArrayList<>();
+        private boolean failNextAppend;
+
+        @Override
+        public synchronized long append(String[] playerNames, String[] teamNames, Stats[] stats) {
+            if (failNextAppend) {
+                failNextAppend = false;
+                throw new IllegalStateException("Disk full");
+            }
+            position += stats.length;
+            return position;
+        }
+
+        @Override
+        public long append(String[] gameIds, String[] playerNames, String[] teamNames, Stats[] stats,
+                           boolean[] retractions) {
+            return append(playerNames, teamNames, stats);
+        }
+
+        @Override
+        public synchronized long rollBack(String[] gameIds, String[] playerNames, String[] teamNames, Stats[] stats) {
+            rolledBack.addAll(List.of(playerNames));
+            return append(playerNames, teamNames, stats);
+        }
+
+        @Override
+        public synchronized void commit(long position) {
+            commits.add(position);
+        }
+
+        @Override
+        public synchronized long position() {
+            return position;
+        }
+
+        @Override
+        public void truncateBefore(long position) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -3,13 +3,20 @@ package com.kanevsky.stats.service;
 import com.kanevsky.stats.dto.StatsEntryDto;
 import com.kanevsky.stats.mappers.IStatsMapper;
 import com.kanevsky.stats.model.Stats;
+import com.kanevsky.stats.repos.GameDedupIndex;
 import com.kanevsky.stats.repos.IStatsManager;
+import com.kanevsky.stats.repos.IWriteAheadLog;
+import com.kanevsky.stats.repos.StatsManager;
+import com.kanevsky.stats.repos.StatsRepo;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -28,6 +35,9 @@ class IngestServiceTest {
     @Mock
     private IStatsManager teamStatsManager;
 
+    @Mock
+    private IWriteAheadLog writeAheadLog;
+
     @InjectMocks
     private IngestService ingestService;
 
@@ -37,6 +47,7 @@ class IngestServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(ingestService, "journal", new IngestJournal(IWriteAheadLog.DISABLED));
 
         // Setup valid stats entry
         validStatsEntry = new StatsEntryDto();
@@ -126,6 +137,19 @@ class IngestServiceTest {
         verify(teamStatsManager).submit(mappedStats, "Lakers");
     }
 
+    @Test
+    void testProcessStatsEntry_RejectedGameLineAcceptedWhenRetried() {
+        validStatsEntry.setGameId("2024-12-25-LAL-GSW");
+        when(playerStatsManager.submit(mappedStats, "John Doe")).thenReturn(false, true);
+        when(teamStatsManager.submit(mappedStats, "Lakers")).thenReturn(false, true);
+
+        assertFalse(ingestService.processStatsEntry(validStatsEntry));
+        assertTrue(ingestService.processStatsEntry(validStatsEntry));
+        assertTrue(ingestService.processStatsEntry(validStatsEntry));
+
+        verify(playerStatsManager, times(2)).submit(mappedStats, "John Doe");
+    }
+
     @Test
     void testProcessStatsEntry_MappingException() {
         // Setup
@@ -304,4 +328,268 @@ class IngestServiceTest {
         verify(playerStatsManager, times(1)).submit(any(Stats.class), anyString());
         verify(teamStatsManager, times(1)).submit(any(Stats.class), anyString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testProcessBatchEntries_SameKeysMergedOnce() {
+        // Setup
+        StatsEntryDto entry2 = new StatsEntryDto();
+        entry2.setPlayerName("Jane Smith");
+        entry2.setTeamName("Lakers");
+        entry2.setStats(validStatsEntry.getStats());
+
+        StatsEntryDto entry3 = new StatsEntryDto();
+        entry3.setPlayerName("John Doe");
+        entry3.setTeamName("Lakers");
+        entry3.setStats(validStatsEntry.getStats());
+
+        List<StatsEntryDto> entries = Arrays.asList(validStatsEntry, entry2, entry3);
+
+        Stats doubled = new Stats(40, 10, 6, 2, 0, 4, 2, 51);
+        Stats tripled = new Stats(60, 15, 9, 3, 0, 6, 3, 76.5);
+        when(playerStatsManager.merge(doubled, 2, "John Doe")).thenReturn(true);
+        when(playerStatsManager.submit(mappedStats, "Jane Smith")).thenReturn(true);
+        when(teamStatsManager.merge(tripled, 3, "Lakers")).thenReturn(true);
+
+        // Execute
+        int result = ingestService.processBatchEntries(entries);
+
+        // Verify
+        assertEquals(3, result);
+        verify(playerStatsManager).merge(doubled, 2, "John Doe");
+        verify(playerStatsManager).submit(mappedStats, "Jane Smith");
+        verify(teamStatsManager).merge(tripled, 3, "Lakers");
+        verify(teamStatsManager, never()).submit(any(Stats.class), anyString());
+    }
+
+    @Test
+    void testProcessBatchEntries_FailedMergeFailsAllEntriesOfKey() {
+        // Setup
+        StatsEntryDto entry2 = new StatsEntryDto();
+        entry2.setPlayerName("Jane Smith");
+        entry2.setTeamName("Lakers");
+        entry2.setStats(validStatsEntry.getStats());
+
+        StatsEntryDto entry3 = new StatsEntryDto();
+        entry3.setPlayerName("Jane Smith");
+        entry3.setTeamName("Celtics");
+        entry3.setStats(validStatsEntry.getStats());
+
+        List<StatsEntryDto> entries = Arrays.asList(validStatsEntry, entry2, entry3);
+
+        when(playerStatsManager.submit(mappedStats, "John Doe")).thenReturn(true);
+        when(playerStatsManager.merge(any(Stats.class), eq(2L), eq("Jane Smith"))).thenReturn(true);
+        when(teamStatsManager.merge(any(Stats.class), eq(2L), eq("Lakers"))).thenReturn(false);
+        when(teamStatsManager.submit(mappedStats, "Celtics")).thenReturn(true);
+
+        // Execute
+        int result = ingestService.processBatchEntries(entries);
+
+        // Verify
+        assertEquals(1, result);
+    }
+
+    @Test
+    void testProcessBatchEntries_ParallelMatchesSequential() {
+        // Setup
+        List<StatsEntryDto> entries = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            StatsEntryDto entry = new StatsEntryDto();
+            entry.setPlayerName(i % 97 == 0 ? "" : "player" + (i % 200));
+            entry.setTeamName("team" + (i % 30));
+            StatsEntryDto.GameStatsDto gameStats = new StatsEntryDto.GameStatsDto();
+            gameStats.setPoints(i % 40);
+            entry.setStats(gameStats);
+            entries.add(entry);
+        }
+        when(statsMapper.toStats(any())).thenAnswer(invocation -> {
+            StatsEntryDto.GameStatsDto gameStats = invocation.getArgument(0);
+            return new Stats(gameStats.getPoints(), 0, 0, 0, 0, 0, 0, 0);
+        });
+
+        StatsManager sequentialPlayers = new StatsManager(new StatsRepo());
+        StatsManager sequentialTeams = new StatsManager(new StatsRepo());
+        ReflectionTestUtils.setField(ingestService, "playerStatsManager", sequentialPlayers);
+        ReflectionTestUtils.setField(ingestService, "teamStatsManager", sequentialTeams);
+        int sequentialResult = ingestService.processBatchEntries(entries);
+
+        StatsManager parallelPlayers = new StatsManager(new StatsRepo());
+        StatsManager parallelTeams = new StatsManager(new StatsRepo());
+        ReflectionTestUtils.setField(ingestService, "playerStatsManager", parallelPlayers);
+        ReflectionTestUtils.setField(ingestService, "teamStatsManager", parallelTeams);
+        ReflectionTestUtils.setField(ingestService, "parallelThreshold", 100);
+        ReflectionTestUtils.setField(ingestService, "parallelPartitions", 8);
+
+        // Execute
+        int parallelResult = ingestService.processBatchEntries(entries);
+
+        // Verify: entries with a blank player name fail, all others succeed
+        int expected = 5000 - (5000 / 97 + 1);
+        assertEquals(expected, sequentialResult);
+        assertEquals(expected, parallelResult);
+        for (int i = 0; i < 200; i++) {
+            assertEquals(sequentialPlayers.getStats("player" + i), parallelPlayers.getStats("player" + i));
+        }
+        for (int i = 0; i < 30; i++) {
+            assertEquals(sequentialTeams.getStats("team" + i), parallelTeams.getStats("team" + i));
+        }
+    }
+
+    @Test
+    void testProcessBatch_PreMappedStats() {
+        // Setup
+        StatsManager players = new StatsManager(new StatsRepo());
+        StatsManager teams = new StatsManager(new StatsRepo());
+        ReflectionTestUtils.setField(ingestService, "playerStatsManager", players);
+        ReflectionTestUtils.setField(ingestService, "teamStatsManager", teams);
+        String[] playerNames = {"John Doe", "Jane Roe", "John Doe"};
+        String[] teamNames = {"Lakers", "Lakers", "Lakers"};
+        Stats[] stats = {new Stats(20, 0, 0, 0, 0, 0, 0, 0), null, new Stats(10, 0, 0, 0, 0, 0, 0, 0)};
+
+        // Execute
+        int result = ingestService.processBatch(playerNames, teamNames, stats);
+
+        // Verify: the line without stats fails, the mapper is never involved
+        assertEquals(2, result);
+        assertEquals(15, players.getStats("John Doe").getPoints());
+        assertNull(players.getStats("Jane Roe"));
+        assertEquals(15, teams.getStats("Lakers").getPoints());
+        verifyNoInteractions(statsMapper);
+        assertThrows(IllegalArgumentException.class,
+                () -> ingestService.processBatch(new String[1], new String[2], new Stats[1]));
+    }
+
+    @Test
+    void testProcessBatchEntries_RetriedGameLinesNotCountedTwice() {
+        StatsManager players = new StatsManager(new StatsRepo());
+        StatsManager teams = new StatsManager(new StatsRepo());
+        ReflectionTestUtils.setField(ingestService, "playerStatsManager", players);
+        ReflectionTestUtils.setField(ingestService, "teamStatsManager", teams);
+        List<StatsEntryDto> entries = new ArrayList<>();
+        for (String playerName : List.of("John Doe", "Jane Roe")) {
+            StatsEntryDto entry = new StatsEntryDto();
+            entry.setGameId("2024-12-25-LAL-GSW");
+            entry.setPlayerName(playerName);
+            entry.setTeamName("Lakers");
+            StatsEntryDto.GameStatsDto gameStats = new StatsEntryDto.GameStatsDto();
+            gameStats.setPoints(entries.isEmpty() ? 20 : 10);
+            entry.setStats(gameStats);
+            entries.add(entry);
+        }
+        when(statsMapper.toStats(any())).thenAnswer(invocation -> {
+            StatsEntryDto.GameStatsDto gameStats = invocation.getArgument(0);
+            return new Stats(gameStats.getPoints(), 0, 0, 0, 0, 0, 0, 0);
+        });
+
+        assertEquals(2, ingestService.processBatchEntries(entries));
+        // The retry reports the same count but changes nothing.
+        assertEquals(2, ingestService.processBatchEntries(entries));
+        assertTrue(ingestService.processStatsEntry(entries.get(0)));
+
+        assertEquals(20, players.getStats("John Doe").getPoints());
+        assertEquals(15, teams.getStats("Lakers").getPoints());
+    }
+
+    @Test
+    void testCorrect_SubtractsOriginalAndAddsCorrectedLine() {
+        StatsManager players = new StatsManager(new StatsRepo());
+        StatsManager teams = new StatsManager(new StatsRepo());
+        ReflectionTestUtils.setField(ingestService, "playerStatsManager", players);
+        ReflectionTestUtils.setField(ingestService, "teamStatsManager", teams);
+        when(statsMapper.toStats(any())).thenAnswer(invocation -> {
+            StatsEntryDto.GameStatsDto gameStats = invocation.getArgument(0);
+            return new Stats(gameStats.getPoints(), 0, 0, 0, 0, 0, 0, 0);
+        });
+        StatsEntryDto original = entry("2024-12-25-LAL-GSW", "John Doe", 20);
+        StatsEntryDto corrected = entry("2024-12-25-LAL-GSW", "John Doe", 26);
+        StatsEntryDto other = entry("2024-12-25-LAL-GSW", "Jane Roe", 10);
+        assertEquals(2, ingestService.processBatchEntries(List.of(original, other)));
+
+        // More points than John Doe ever scored cannot be one of his lines.
+        assertEquals(CorrectionResult.ORIGINAL_NOT_FOUND, ingestService.retract("fix-0", entry("2024-12-25-LAL-GSW", "John Doe", 21)));
+        assertEquals(20, players.getStats("John Doe").getPoints());
+
+        assertEquals(CorrectionResult.APPLIED, ingestService.correct("fix-1", original, corrected));
+        // A retry of the correction changes nothing.
+        assertEquals(CorrectionResult.APPLIED, ingestService.correct("fix-1", original, corrected));
+
+        assertEquals(26, players.getStats("John Doe").getPoints());
+        assertEquals(1, players.getGames("John Doe"));
+        assertEquals(18, teams.getStats("Lakers").getPoints());
+
+        assertEquals(CorrectionResult.APPLIED, ingestService.retract("fix-2", other));
+        assertNull(players.getStats("Jane Roe"));
+        assertEquals(26, teams.getStats("Lakers").getPoints());
+        // Nothing left to take the line from, and a late retry of the retracted line is still dropped.
+        assertEquals(CorrectionResult.ORIGINAL_NOT_FOUND, ingestService.retract("fix-3", other));
+        assertTrue(ingestService.processStatsEntry(other));
+        assertNull(players.getStats("Jane Roe"));
+    }
+
+    @Test
+    void testCorrect_CorrectedLineOfRetiredGameApplied() {
+        StatsManager players = new StatsManager(new StatsRepo());
+        StatsManager teams = new StatsManager(new StatsRepo());
+        ReflectionTestUtils.setField(ingestService, "playerStatsManager", players);
+        ReflectionTestUtils.setField(ingestService, "teamStatsManager", teams);
+        ReflectionTestUtils.setField(ingestService, "journal",
+                new IngestJournal(IWriteAheadLog.DISABLED, new GameDedupIndex(4, 1000, 1e-9)));
+        when(statsMapper.toStats(any())).thenAnswer(invocation -> {
+            StatsEntryDto.GameStatsDto gameStats = invocation.getArgument(0);
+            return new Stats(gameStats.getPoints(), 0, 0, 0, 0, 0, 0, 0);
+        });
+        StatsEntryDto original = entry("game0", "John Doe", 20);
+        assertTrue(ingestService.processStatsEntry(original));
+        for (int game = 1; game <= 8; game++) {
+            assertTrue(ingestService.processStatsEntry(entry("game" + game, "Jane Roe", 10)));
+        }
+
+        assertEquals(CorrectionResult.APPLIED, ingestService.correct("fix-1", original, entry("game0", "John Doe", 26)));
+
+        assertEquals(26, players.getStats("John Doe").getPoints());
+        assertEquals(1, players.getGames("John Doe"));
+    }
+
+    @Test
+    void testCorrect_IncompleteLinesRejectedBeforeAnythingChanges() {
+        when(statsMapper.toStats(any())).thenReturn(mappedStats);
+        StatsEntryDto original = entry("game0", "John Doe", 20);
+
+        assertEquals(CorrectionResult.ORIGINAL_REJECTED, ingestService.correct(" ", original, null));
+        assertEquals(CorrectionResult.ORIGINAL_REJECTED,
+                ingestService.correct("fix-1", entry("game0", "", 20), null));
+        assertEquals(CorrectionResult.CORRECTED_REJECTED,
+                ingestService.correct("fix-1", original, entry("game0", " ", 26)));
+
+        verify(playerStatsManager, never()).canRetract(any(), anyString());
+        verify(playerStatsManager, never()).retract(any(), anyString());
+    }
+
+    @Test
+    void testProcessBatch_LoggedBeforeAppliedAndCommittedBeforeReturn() {
+        String[] playerNames = {"p1", "p2"};
+        String[] teamNames = {"t1", "t1"};
+        Stats[] stats = {mappedStats, mappedStats};
+        ReflectionTestUtils.setField(ingestService, "journal", new IngestJournal(writeAheadLog));
+        when(writeAheadLog.append(playerNames, teamNames, stats)).thenReturn(42L);
+        when(playerStatsManager.submit(any(Stats.class), anyString())).thenReturn(true);
+        when(teamStatsManager.merge(any(Stats.class), anyLong(), anyString())).thenReturn(true);
+
+        assertEquals(2, ingestService.processBatch(playerNames, teamNames, stats));
+
+        InOrder order = inOrder(writeAheadLog, playerStatsManager, teamStatsManager);
+        order.verify(writeAheadLog).append(playerNames, teamNames, stats);
+        order.verify(playerStatsManager, times(2)).submit(any(Stats.class), anyString());
+        order.verify(writeAheadLog).commit(42L);
+    }
+
+    private static StatsEntryDto entry(String gameId, String playerName, int points) {
+        StatsEntryDto entry = new StatsEntryDto();
+        entry.setGameId(gameId);
+        entry.setPlayerName(playerName);
+        entry.setTeamName("Lakers");
+        StatsEntryDto.GameStatsDto gameStats = new StatsEntryDto.GameStatsDto();
+        gameStats.setPoints(points);
+        entry.setStats(gameStats);
+        return entry;
+    }
+}
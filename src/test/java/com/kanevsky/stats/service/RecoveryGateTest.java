@@ -0,0 +1,41 @@
+package com.kanevsky.stats.service;
+
+import com.kanevsky.stats.dto.RecoveryDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecoveryGateTest {
+
+    @Test
+    void testWaitersReleasedWhenRecoveryFinishes() throws Exception {
+        RecoveryGate gate = new RecoveryGate();
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> gate.awaitReady(10_000));
+
+        assertFalse(gate.awaitReady(10));
+        assertFalse(waiter.isDone());
+
+        RecoveryDto status = new RecoveryDto();
+        status.setState(RecoveryState.READY);
+        gate.finish(status);
+
+        assertTrue(waiter.get(5, TimeUnit.SECONDS));
+        assertTrue(gate.isReady());
+    }
+
+    @Test
+    void testFailedRecoveryKeepsGateClosed() {
+        RecoveryGate gate = new RecoveryGate();
+        RecoveryDto status = new RecoveryDto();
+        status.setState(RecoveryState.FAILED);
+        status.setError("corrupt snapshot");
+
+        gate.finish(status);
+
+        assertFalse(gate.awaitReady(10_000));
+        assertEquals("corrupt snapshot", gate.getStatus().getError());
+    }
+}
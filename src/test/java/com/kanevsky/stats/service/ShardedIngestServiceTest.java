@@ -0,0 +1,175 @@
+package com.kanevsky.stats.service;
+
+import com.kanevsky.stats.dto.PipelineMetricsDto;
+import com.kanevsky.stats.dto.StatsEntryDto;
+import com.kanevsky.stats.mappers.IStatsMapper;
+import com.kanevsky.stats.model.SingleWriterAverageCalculator;
+import com.kanevsky.stats.model.Stats;
+import com.kanevsky.stats.repos.IWriteAheadLog;
+import com.kanevsky.stats.repos.StatsManager;
+import com.kanevsky.stats.repos.StatsRepo;
+import com.kanevsky.stats.service.pipeline.IngestShard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ShardedIngestServiceTest {
+
+    @Mock
+    private IStatsMapper statsMapper;
+
+    @InjectMocks
+    private ShardedIngestService ingestService;
+
+    private StatsManager playerStatsManager;
+    private StatsManager teamStatsManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(statsMapper.toStats(any())).thenAnswer(invocation -> {
+            StatsEntryDto.GameStatsDto gameStats = invocation.getArgument(0);
+            return new Stats(gameStats.getPoints(), 0, 0, 0, 0, 0, 0, 0);
+        });
+
+        playerStatsManager = new StatsManager(new StatsRepo(SingleWriterAverageCalculator::new));
+        teamStatsManager = new StatsManager(new StatsRepo(SingleWriterAverageCalculator::new));
+        ReflectionTestUtils.setField(ingestService, "playerStatsManager", playerStatsManager);
+        ReflectionTestUtils.setField(ingestService, "teamStatsManager", teamStatsManager);
+        ReflectionTestUtils.setField(ingestService, "journal", new IngestJournal(IWriteAheadLog.DISABLED));
+        ReflectionTestUtils.setField(ingestService, "shardCount", 4);
+        ReflectionTestUtils.setField(ingestService, "ringCapacity", 64);
+        ReflectionTestUtils.setField(ingestService, "publishTimeoutMillis", 5000L);
+        ingestService.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ingestService.stop();
+    }
+
+    @Test
+    void testConcurrentBatchesMatchDirectIngest() throws InterruptedException {
+        List<StatsEntryDto> entries = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            entries.add(entry(i % 97 == 0 ? "" : "player" + (i % 200), "team" + (i % 30), i % 40));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Integer> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            results.add(0);
+        }
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            executor.submit(() -> results.set(thread, ingestService.processBatchEntries(entries)));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(ingestService.awaitDrained(10, TimeUnit.SECONDS));
+
+        StatsManager expectedPlayers = new StatsManager(new StatsRepo());
+        StatsManager expectedTeams = new StatsManager(new StatsRepo());
+        for (int t = 0; t < 4; t++) {
+            for (StatsEntryDto entry : entries) {
+                Stats stats = new Stats(entry.getStats().getPoints(), 0, 0, 0, 0, 0, 0, 0);
+                if (expectedPlayers.submit(stats, entry.getPlayerName())) {
+                    expectedTeams.submit(stats, entry.getTeamName());
+                }
+            }
+        }
+
+        int expected = 5000 - (5000 / 97 + 1);
+        results.forEach(result -> assertEquals(expected, result));
+        for (int i = 0; i < 200; i++) {
+            assertEquals(expectedPlayers.getStats("player" + i).getPoints(),
+                    playerStatsManager.getStats("player" + i).getPoints(), 0.0001);
+        }
+        for (int i = 0; i < 30; i++) {
+            assertEquals(expectedTeams.getStats("team" + i).getPoints(),
+                    teamStatsManager.getStats("team" + i).getPoints(), 0.0001);
+        }
+
+        PipelineMetricsDto metrics = ingestService.getMetrics();
+        assertEquals(4, metrics.getShards().size());
+        assertEquals(0, metrics.getQueueDepth());
+        assertEquals(2L * 4 * expected, metrics.getApplied());
+        assertEquals(0, metrics.getFailed());
+        assertEquals(0, metrics.getRejected());
+    }
+
+    @Test
+    void testInvalidEntryRejectedBeforePublishing() {
+        assertFalse(ingestService.processStatsEntry(entry(" ", "Lakers", 10)));
+        assertFalse(ingestService.processStatsEntry(entry("John Doe", null, 10)));
+
+        assertTrue(ingestService.awaitDrained(1, TimeUnit.SECONDS));
+        assertNull(teamStatsManager.getStats("Lakers"));
+        assertNull(playerStatsManager.getStats("John Doe"));
+    }
+
+    @Test
+    void testCorrectionAppliedByOwningWorkers() {
+        StatsEntryDto original = entry("John Doe", "Lakers", 20);
+        assertTrue(ingestService.processStatsEntry(original));
+        assertTrue(ingestService.processStatsEntry(entry("Jane Roe", "Lakers", 10)));
+
+        // Checked right after publishing: the correction waits for the queued lines to be applied.
+        assertEquals(CorrectionResult.APPLIED, ingestService.correct("fix-1", original, entry("John Doe", "Lakers", 26)));
+        assertEquals(CorrectionResult.APPLIED, ingestService.correct("fix-1", original, entry("John Doe", "Lakers", 26)));
+        assertEquals(CorrectionResult.APPLIED, ingestService.retract("fix-2", entry("Jane Roe", "Lakers", 10)));
+        assertEquals(CorrectionResult.ORIGINAL_NOT_FOUND, ingestService.retract("fix-3", entry("Jane Roe", "Lakers", 10)));
+
+        assertTrue(ingestService.awaitDrained(1, TimeUnit.SECONDS));
+        assertEquals(26, playerStatsManager.getStats("John Doe").getPoints());
+        assertNull(playerStatsManager.getStats("Jane Roe"));
+        assertEquals(26, teamStatsManager.getStats("Lakers").getPoints());
+        assertEquals(0, ingestService.getMetrics().getFailed());
+    }
+
+    @Test
+    void testLineRejectedByBackPressureIsCountedOnceWhenRetried() throws InterruptedException {
+        ingestService.stop();
+        // Not started, so the first line fills the ring and the second one is rejected.
+        IngestShard shard = new IngestShard(0, 2);
+        ReflectionTestUtils.setField(ingestService, "shards", new IngestShard[]{shard});
+        ReflectionTestUtils.setField(ingestService, "publishTimeoutMillis", 20L);
+        StatsEntryDto line = entry("John Doe", "Lakers", 10);
+        line.setGameId("game1");
+
+        assertTrue(ingestService.processStatsEntry(entry("Jane Roe", "Celtics", 5)));
+        assertFalse(ingestService.processStatsEntry(line));
+        assertEquals(2, shard.queueDepth());
+
+        shard.start();
+        assertTrue(ingestService.processStatsEntry(line));
+        assertTrue(ingestService.processStatsEntry(line));
+
+        assertTrue(ingestService.awaitDrained(1, TimeUnit.SECONDS));
+        assertEquals(1, playerStatsManager.getGames("John Doe"));
+        assertEquals(1, teamStatsManager.getGames("Lakers"));
+    }
+
+    private static StatsEntryDto entry(String playerName, String teamName, int points) {
+        StatsEntryDto entry = new StatsEntryDto();
+        entry.setPlayerName(playerName);
+        entry.setTeamName(teamName);
+        StatsEntryDto.GameStatsDto gameStats = new StatsEntryDto.GameStatsDto();
+        gameStats.setPoints(points);
+        entry.setStats(gameStats);
+        return entry;
+    }
+}
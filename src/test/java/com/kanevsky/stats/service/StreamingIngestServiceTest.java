@@ -0,0 +1,120 @@
+package com.kanevsky.stats.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kanevsky.stats.dto.IngestResultDto;
+import com.kanevsky.stats.dto.StatsEntryDto;
+import com.kanevsky.stats.exceptions.IngestException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StreamingIngestServiceTest {
+
+    @Mock
+    private IIngestService ingestService;
+
+    private final StreamingIngestService streamingIngestService = new StreamingIngestService();
+
+    private final List<List<String>> chunks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(streamingIngestService, "ingestService", ingestService);
+        ReflectionTestUtils.setField(streamingIngestService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(streamingIngestService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(streamingIngestService, "chunkSize", 2);
+        when(ingestService.processBatchEntries(any())).thenAnswer(invocation -> {
+            List<StatsEntryDto> entries = invocation.getArgument(0);
+            chunks.add(entries.stream().map(StatsEntryDto::getPlayerName).toList());
+            return entries.size();
+        });
+    }
+
+    @Test
+    void testEntriesAppliedInBoundedChunks() {
+        String body = "{\"source\": {\"feed\": [1, 2]}, \"entries\": ["
+                + entry("p1", 10) + "," + entry("p2", 20) + "," + entry("p3", 30) + "]}";
+
+        IngestResultDto result = streamingIngestService.ingestJson(stream(body));
+
+        assertEquals(3, result.getReceived());
+        assertEquals(3, result.getSucceeded());
+        assertEquals(0, result.getFailed());
+        assertEquals(List.of(List.of("p1", "p2"), List.of("p3")), chunks);
+    }
+
+    @Test
+    void testInvalidEntriesSkippedAndReported() {
+        String body = "{\"entries\": [" + entry("p1", 10) + "," + entry("", -1) + "," + entry("p3", 30) + "]}";
+
+        IngestResultDto result = streamingIngestService.ingestJson(stream(body));
+
+        assertEquals(3, result.getReceived());
+        assertEquals(2, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+        assertEquals("playerName: Player name cannot be empty; stats.points: Points cannot be negative",
+                result.getErrors().get(0).getMessage());
+        assertEquals(List.of(List.of("p1", "p3")), chunks);
+    }
+
+    @Test
+    void testMalformedBodyKeepsAppliedEntriesAndFails() {
+        String body = "{\"entries\": [" + entry("p1", 10) + "," + entry("p2", 20) + "," + entry("p3", 30) + ", {\"playerName\": ";
+
+        IngestException exception = assertThrows(IngestException.class,
+                () -> streamingIngestService.ingestJson(stream(body)));
+
+        assertTrue(exception.getMessage().startsWith("Malformed stats stream after 3 entries (3 applied)"));
+        assertEquals(List.of(List.of("p1", "p2"), List.of("p3")), chunks);
+    }
+
+    @Test
+    void testNonObjectBodyRejected() {
+        assertThrows(IngestException.class, () -> streamingIngestService.ingestJson(stream("[]")));
+        verifyNoInteractions(ingestService);
+    }
+
+    @Test
+    void testNdjsonReportsBadLinesByOffsetAndContinues() {
+        String body = entry("p1", 10) + "\n"
+                + "\n"
+                + "{\"playerName\": \"p2\", \"points\": }\n"
+                + entry("p3", 30) + "\r\n"
+                + entry("", 40) + "\n"
+                + entry("p5", 50);
+
+        IngestResultDto result = streamingIngestService.ingestNdjson(stream(body));
+
+        assertEquals(5, result.getReceived());
+        assertEquals(3, result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        assertEquals(2, result.getErrors().get(0).getIndex());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("Malformed entry"));
+        assertEquals(4, result.getErrors().get(1).getIndex());
+        assertEquals(List.of(List.of("p1", "p3"), List.of("p5")), chunks);
+    }
+
+    private static String entry(String playerName, int points) {
+        return "{\"playerName\": \"" + playerName + "\", \"teamName\": \"Lakers\", \"points\": " + points
+                + ", \"minutesPlayed\": 30.5}";
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,128 @@
+package com.kanevsky.stats.service.live;
+
+import com.kanevsky.stats.model.Stats;
+import com.kanevsky.stats.repos.StatsManager;
+import com.kanevsky.stats.repos.StatsRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsSubscriptionHubTest {
+
+    private final StatsSubscriptionHub hub = new StatsSubscriptionHub();
+    private StatsManager playerStatsManager;
+    private StatsManager teamStatsManager;
+
+    @BeforeEach
+    void setUp() {
+        playerStatsManager = new StatsManager(new StatsRepo());
+        teamStatsManager = new StatsManager(new StatsRepo());
+        ReflectionTestUtils.setField(hub, "playerStatsManager", playerStatsManager);
+        ReflectionTestUtils.setField(hub, "teamStatsManager", teamStatsManager);
+        ReflectionTestUtils.setField(hub, "deliveryThreads", 1);
+        hub.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        hub.stop();
+    }
+
+    @Test
+    void testCurrentValuesSentOnSubscribeThenChanges() {
+        playerStatsManager.submit(stats(10), "John Doe");
+        RecordingSink sink = new RecordingSink();
+
+        hub.subscribe(Set.of("John Doe"), Set.of("Lakers"), sink);
+        awaitTrue(() -> sink.updates.size() == 1);
+        assertEquals(new Update(EntityKind.PLAYER, "John Doe", 10), sink.updates.get(0));
+
+        teamStatsManager.submit(stats(30), "Lakers");
+        playerStatsManager.submit(stats(20), "John Doe");
+        playerStatsManager.submit(stats(99), "Someone Else");
+
+        awaitTrue(() -> sink.updates.size() == 3);
+        assertTrue(sink.updates.contains(new Update(EntityKind.TEAM, "Lakers", 30)));
+        assertTrue(sink.updates.contains(new Update(EntityKind.PLAYER, "John Doe", 15)));
+    }
+
+    @Test
+    void testSlowSubscriberOnlyGetsLatestValue() throws InterruptedException {
+        RecordingSink sink = new RecordingSink();
+        sink.ready = false;
+        StatsSubscription subscription = hub.subscribe(Set.of("John Doe"), Set.of(), sink);
+
+        for (int i = 1; i <= 1000; i++) {
+            playerStatsManager.submit(stats(i % 2 == 0 ? 20 : 0), "John Doe");
+        }
+        Thread.sleep(50);
+        assertTrue(sink.updates.isEmpty());
+
+        sink.ready = true;
+        subscription.signal();
+
+        awaitTrue(() -> sink.updates.size() == 1);
+        Thread.sleep(50);
+        assertEquals(List.of(new Update(EntityKind.PLAYER, "John Doe", 10)), sink.updates);
+    }
+
+    @Test
+    void testClosedSubscriptionIsCompletedAndNoLongerNotified() throws InterruptedException {
+        RecordingSink sink = new RecordingSink();
+        StatsSubscription subscription = hub.subscribe(Set.of(), Set.of("Lakers"), sink);
+        assertEquals(1, hub.subscriberCount());
+
+        subscription.close();
+        awaitTrue(() -> sink.completed);
+        teamStatsManager.submit(stats(30), "Lakers");
+        Thread.sleep(50);
+
+        assertEquals(0, hub.subscriberCount());
+        assertTrue(sink.updates.isEmpty());
+    }
+
+    private static Stats stats(double points) {
+        return new Stats(points, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for delivery");
+            Thread.onSpinWait();
+        }
+    }
+
+    private record Update(EntityKind kind, String name, double points) {
+    }
+
+    private static class RecordingSink implements IStatsUpdateSink {
+        private final List<Update> updates = new CopyOnWriteArrayList<>();
+        private volatile boolean ready = true;
+        private volatile boolean completed;
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void send(EntityKind kind, String name, Stats average) {
+            updates.add(new Update(kind, name, average.getPoints()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
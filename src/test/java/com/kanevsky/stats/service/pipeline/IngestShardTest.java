@@ -0,0 +1,70 @@
+package com.kanevsky.stats.service.pipeline;
+
+import com.kanevsky.stats.model.Stats;
+import com.kanevsky.stats.repos.StatsManager;
+import com.kanevsky.stats.repos.StatsRepo;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestShardTest {
+
+    private final Stats game = new Stats(10, 0, 0, 0, 0, 0, 0, 0);
+
+    @Test
+    void testPublishRejectedWhenBufferStaysFull() {
+        StatsManager statsManager = new StatsManager(new StatsRepo());
+        // Not started, so nothing drains the buffer
+        IngestShard shard = new IngestShard(0, 2);
+        long timeout = TimeUnit.MILLISECONDS.toNanos(20);
+
+        assertTrue(shard.publish(statsManager, "a", game, timeout));
+        assertTrue(shard.publish(statsManager, "a", game, timeout));
+        assertFalse(shard.publish(statsManager, "a", game, timeout));
+
+        assertEquals(2, shard.queueDepth());
+        assertEquals(2, shard.highWaterMark());
+        assertEquals(1, shard.rejected());
+        assertEquals(1, shard.backpressureWaits());
+    }
+
+    @Test
+    void testPublishAllQueuesNothingWhenOneBufferIsFull() {
+        StatsManager statsManager = new StatsManager(new StatsRepo());
+        IngestShard players = new IngestShard(0, 2);
+        IngestShard teams = new IngestShard(1, 2);
+        long timeout = TimeUnit.MILLISECONDS.toNanos(20);
+        assertTrue(teams.publish(statsManager, "t", game, timeout));
+        assertTrue(teams.publish(statsManager, "t", game, timeout));
+
+        IngestShard[] shards = {players, teams};
+        IngestShard.Update[] updates = {
+                new IngestShard.Update(statsManager, "a", game, false),
+                new IngestShard.Update(statsManager, "t", game, false)};
+        assertFalse(IngestShard.publishAll(shards, updates, timeout));
+
+        assertEquals(0, players.queueDepth());
+        assertEquals(2, teams.queueDepth());
+        assertEquals(1, teams.rejected());
+    }
+
+    @Test
+    void testBlockedPublisherResumesOnceWorkerDrains() throws InterruptedException {
+        StatsManager statsManager = new StatsManager(new StatsRepo());
+        IngestShard shard = new IngestShard(0, 2);
+        shard.start();
+        long timeout = TimeUnit.SECONDS.toNanos(5);
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(shard.publish(statsManager, "a", game, timeout));
+        }
+
+        assertTrue(shard.awaitDrained(5, TimeUnit.SECONDS));
+        assertEquals(1000, shard.applied());
+        assertEquals(0, shard.rejected());
+        assertEquals(game, statsManager.getStats("a"));
+        shard.stop(1, TimeUnit.SECONDS);
+    }
+}